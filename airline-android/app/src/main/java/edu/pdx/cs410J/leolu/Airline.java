@@ -8,6 +8,9 @@
  * an airline to be created with a List of existing flights.
  * The List of flights are validated to not contain
  * any null flights, but can be an empty list, before being created.
+ *
+ * The flights are inserted at their sorted position, so the list is always
+ * in {@link Flight#compareTo(Flight)} order and reading it never sorts.
  * @author Leo Lu
  * PSU CS510 Advanced Java Winter 2023
  *
@@ -18,13 +21,12 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 
 import edu.pdx.cs410J.AbstractAirline;
 
 public class Airline extends AbstractAirline<Flight> implements Serializable {
   private final String name;
-  private List<Flight> flights;
+  private final ArrayList<Flight> flights = new ArrayList<>();
   private String error="";
   private static final long serialVersionUID = 1L;
 
@@ -37,7 +39,6 @@ public class Airline extends AbstractAirline<Flight> implements Serializable {
   public Airline(String name){
     validateAirlineName(name);
     this.name = name;
-    flights = new ArrayList<Flight>();
   }
 
   /**
@@ -51,7 +52,7 @@ public class Airline extends AbstractAirline<Flight> implements Serializable {
     validateFlightList(flights);
 
     this.name = name;
-    this.flights = flights;
+    if(flights != null) addFlights(flights);
   }
 
   /**
@@ -63,7 +64,7 @@ public class Airline extends AbstractAirline<Flight> implements Serializable {
   }
 
   /**
-   * Adds a flight to the ArrayList
+   * Inserts a flight at its sorted position in the ArrayList
    * Validates that the flight is not null before adding
    * @param flight Flight that is to be added
    * @throws  NullPointerException if flight is null
@@ -75,17 +76,45 @@ public class Airline extends AbstractAirline<Flight> implements Serializable {
     }catch(Exception e) {
       error = e.getMessage();
       System.out.println(e.getMessage());
+      return;
+    }
+    this.flights.add(insertionPoint(flight), flight);
+  }
+
+  /**
+   * Adds every flight with a single stable sort instead of one insert per flight
+   * Null flights are skipped
+   * @param added flights to be added, in any order
+   * */
+  public void addFlights(Collection<Flight> added) {
+    for(Flight fl: added){
+      if(fl != null) this.flights.add(fl);
     }
-    this.flights.add(flight);
+    Collections.sort(this.flights);
   }
 
   /**
-   * @return  ArrayList flights
+   * The flights are kept sorted as they are added, so this returns a
+   * read-only view without sorting
+   * @return  unmodifiable, sorted list of flights
    * */
   @Override
   public Collection<Flight> getFlights() {
-    Collections.sort(flights);
-    return flights;
+    return Collections.unmodifiableList(flights);
+  }
+
+  /**
+   * @return index after every flight that does not sort after the given flight,
+   * so flights that compare as equal keep the order they were added in
+   * */
+  private int insertionPoint(Flight flight){
+    int low = 0, high = flights.size();
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(flights.get(mid).compareTo(flight) <= 0) low = mid + 1;
+      else high = mid;
+    }
+    return low;
   }
 
   /**
@@ -8,33 +8,36 @@
 package edu.pdx.cs410J.leolu;
 
 import java.io.Serializable;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.FormatStyle;
+import java.time.format.ResolverStyle;
 import java.util.Date;
 
 import edu.pdx.cs410J.AbstractFlight;
-import edu.pdx.cs410J.AirportNames;
 
 
 public class Flight extends AbstractFlight implements Comparable<Flight>, Serializable {
-  private final SimpleDateFormat formatter = new SimpleDateFormat("MM/dd/yyyy h:mm a");
-  private final SimpleDateFormat formatter24 = new SimpleDateFormat("MM/dd/yyyy H:mm");
-  private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-  private final SimpleDateFormat timeFormat = new SimpleDateFormat("h:mm a");
-  private final SimpleDateFormat timeFormat24 = new SimpleDateFormat("H:mm");
+  // Formatters are immutable and thread-safe, so every flight shares them.
+  // Parsing is lenient like SimpleDateFormat, e.g. 02/30/2023 resolves to 03/02/2023
+  private static final DateTimeFormatter PARSE_12HR = lenientParser("M/d/yyyy h:mm a");
+  private static final DateTimeFormatter PARSE_24HR = lenientParser("M/d/yyyy H:mm");
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+  private static final DateTimeFormatter TIME_FORMAT_24 = DateTimeFormatter.ofPattern("H:mm");
+  private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
+  private static final DateTimeFormatter SHORT_FORMAT = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
   private int flightNumber;
   private int flightDuration;
   private boolean twelveHrFormat = true;
-  private String dep; //Departure Airport 3-letter Code
-  private String arr; //Arrival Airport 3-letter Code
-  private String depDate;
-  private String depTime;
-  private String arrDate;
-  private String arrTime;
+  private int dep = AirportCodes.NONE; //Departure Airport id in AirportCodes
+  private int arr = AirportCodes.NONE; //Arrival Airport id in AirportCodes
 
-  private Date departureDate;
-  private Date arrivalDate;
+  private LocalDateTime departureDateTime;
+  private LocalDateTime arrivalDateTime;
 
 
   /**
@@ -126,8 +129,8 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
 
   /**
    * Ensures input is only of length 3
-   * Ensures input is alphabetical
-   * Ensures input toUpperCase()
+   * Ensures input is alphabetical, in any case
+   * Stores the id of the code from {@link AirportCodes}
    * @param input - airport code String from Constructor
    * @param type - Departure or Arrival
    * @throws  NullPointerException if input is null or of length 0
@@ -136,31 +139,21 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
   public void setAirportCode(String input, String type){
     if(input==null||input.length()==0)
       throw new NullPointerException(type + " airport code cannot be null.");
-    input = input.toUpperCase();//case insensitive
-    if(input.length()!=3||!isAirportCodeAlphabetic(input))
-      throw new IllegalArgumentException(type + " airport code must be a 3-letter alphabetical code: " + input);
-    if(!Helper.isRealAirportCode(input)){
-      throw new IllegalArgumentException(type + " airport code is not a real airport code: " + input);
+    int id = AirportCodes.idOf(input);//case insensitive
+    if(id==AirportCodes.NONE)
+      throw new IllegalArgumentException(type + " airport code must be a 3-letter alphabetical code: " + input.toUpperCase());
+    if(!AirportCodes.isReal(id)){
+      throw new IllegalArgumentException(type + " airport code is not a real airport code: " + input.toUpperCase());
     }
-    if(type.equals("Departure")) this.dep=input.toUpperCase();
-    if(type.equals("Arrival")) this.arr=input.toUpperCase();
+    if(type.equals("Departure")) this.dep=id;
+    if(type.equals("Arrival")) this.arr=id;
   }
-  /**
-   * @param input - airport code String from Constructor
-   * @return boolean true when airport code is alphabetic
-   * */
-  private boolean isAirportCodeAlphabetic(String input)
-  {
-    return input.matches("^[a-zA-Z]*$");
-  }
-
   /**
    * Ensures date is not null and is of correct format
    * mm/dd/yyyy - leading zeros are ignored
    * */
   private boolean isValidDate(String input){
-    return input.matches("^(?:(1[0-2]|0?[1-9])/(3[01]|[12][0-9]|0?[1-9])|↵\n" +
-            "(3[01]|[12][0-9]|0?[1-9])/(1[0-2]|0?[1-9]))/(?:[0-9]{2})?[0-9]{2}$");
+    return FlightValidator.isValidDate(input);
   }
 
   /**
@@ -168,7 +161,7 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * H:mm - leading zeros can be ignored
    * */
   private boolean isValidTime(String input){
-    return input.matches("^([0-9]|0[0-9]|1[0-9]|2[0-3]):[0-5][0-9]$");
+    return FlightValidator.isValidTime24(input);
   }
 
   /**
@@ -176,7 +169,20 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * h:mm - leading zeros can be ignored
    * */
   private boolean isValid12HrMeridiem(String input){
-    return input.matches("((1[0-2]|0?[1-9]):([0-5][0-9]) ?([AaPp][Mm]))");
+    return FlightValidator.isValidTime12(input);
+  }
+
+  /**
+   * @param pattern date and time pattern of user input
+   * @return case-insensitive formatter that resolves out of range dates and times leniently
+   * */
+  private static DateTimeFormatter lenientParser(String pattern){
+    return new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .parseLenient()
+            .appendPattern(pattern)
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.LENIENT);
   }
 
   public void toggle12HrFormat(){
@@ -210,23 +216,17 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
     }
 
     String dateTime = date + " " + time;
-    Date d;
+    LocalDateTime d;
 
     try {
-        if (twelveHrFormat) d = formatter.parse(dateTime);
-        else d = formatter24.parse(dateTime);
-    } catch (ParseException e) {
+        d = LocalDateTime.parse(dateTime, twelveHrFormat ? PARSE_12HR : PARSE_24HR);
+        d = d.atZone(ZoneId.systemDefault()).toLocalDateTime();//skips daylight saving gaps
+    } catch (DateTimeParseException e) {
       throw new IllegalArgumentException("Failed to parse " + type + " date " + date + " and time " + time);
     }
 
-    if (type.equals("Departure")) {
-      this.departureDate = d;
-      this.depDate = dateFormat.format(d);
-    }
-    if (type.equals("Arrival")) {
-      this.arrivalDate = d;
-      this.arrDate = dateFormat.format(d);
-    }
+    if (type.equals("Departure")) this.departureDateTime = d;
+    if (type.equals("Arrival")) this.arrivalDateTime = d;
   }
 
   /**
@@ -234,8 +234,7 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * */
   @Override
   public String getDepartureString() {
-    DateFormat formatter2 = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
-    return formatter2.format(getDeparture());
+    return SHORT_FORMAT.format(departureDateTime);
   }
 
   /**
@@ -243,49 +242,54 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * */
   @Override
   public Date getDeparture(){
-    return departureDate;
+    return toDate(departureDateTime);
   }
   /**
    * @return String Departure Airport 3-letter code
    * */
   @Override
   public String getSource() {
+    return AirportCodes.codeOf(dep);
+  }
+
+  /**
+   * @return int id of the Departure Airport in {@link AirportCodes}
+   * */
+  public int getSourceId() {
     return dep;
   }
 
   /**
    * @return String Departure Date
    * */
-  public String getDepDate(){return depDate;}
+  public String getDepDate(){return format(DATE_FORMAT, departureDateTime);}
 
 
   /**
    * @return String Departure Time in 12-hr am/pm format
    * */
   public String getDepTime(){
-    if(this.depTime==null)this.depTime = timeFormat.format(departureDate);
-    return depTime;
+    return format(TIME_FORMAT, departureDateTime);
   }
 
   /**
    * @return String Departure Time in 24-hr am/pm format
    * */
   public String getDepTime24(){
-    return timeFormat24.format(departureDate);
+    return format(TIME_FORMAT_24, departureDateTime);
   }
 
   /**
    * @return String Arrival Time in 12-hr format
    * */
   public String getArrTime(){
-    if(this.arrTime==null)this.arrTime = timeFormat.format(arrivalDate);
-    return arrTime;
+    return format(TIME_FORMAT, arrivalDateTime);
   }
   /**
    * @return String Arrival Time in 24-hr format
    * */
   public String getArrTime24(){
-    return timeFormat24.format(arrivalDate);
+    return format(TIME_FORMAT_24, arrivalDateTime);
   }
 
   /**
@@ -293,6 +297,13 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * */
   @Override
   public String getDestination() {
+    return AirportCodes.codeOf(arr);
+  }
+
+  /**
+   * @return int id of the Arrival Airport in {@link AirportCodes}
+   * */
+  public int getDestinationId() {
     return arr;
   }
 
@@ -301,21 +312,42 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * */
   @Override
   public String getArrivalString() {
-    DateFormat formatter = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
-    return formatter.format(getArrival());
+    return SHORT_FORMAT.format(arrivalDateTime);
   }
 
   /**
    * @return String Arrival Date
    * */
-  public String getArrDate(){return arrDate;}
+  public String getArrDate(){return format(DATE_FORMAT, arrivalDateTime);}
 
   /**
    * @return Date object Arrival datetime
    * */
   @Override
   public Date getArrival(){
-    return arrivalDate;
+    return toDate(arrivalDateTime);
+  }
+
+  /**
+   * @return String of the datetime in the given format, null when the datetime was never set
+   * */
+  private static String format(DateTimeFormatter format, LocalDateTime dateTime){
+    return dateTime == null ? null : format.format(dateTime);
+  }
+
+  /**
+   * @return milliseconds since the epoch of the datetime in the system time zone,
+   * a time repeated when daylight saving ends is taken as standard time like SimpleDateFormat did
+   * */
+  private static long epochMillis(LocalDateTime dateTime){
+    return dateTime.atZone(ZoneId.systemDefault()).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+  }
+
+  /**
+   * @return Date object of the datetime in the system time zone, null when the datetime was never set
+   * */
+  private static Date toDate(LocalDateTime dateTime){
+    return dateTime == null ? null : new Date(epochMillis(dateTime));
   }
 
   /**
@@ -325,9 +357,9 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * */
   @Override
   public int compareTo(Flight o) {
-    int codeCompare = this.dep.compareTo(o.dep);
+    int codeCompare = Integer.compare(this.dep, o.dep);
     if(codeCompare!=0) return codeCompare;
-    int timeCompare = this.getDeparture().compareTo(o.getDeparture());
+    int timeCompare = this.departureDateTime.compareTo(o.departureDateTime);
     if(timeCompare!=0) return timeCompare;
     return 0;
   }
@@ -336,12 +368,14 @@ public class Flight extends AbstractFlight implements Comparable<Flight>, Serial
    * Sets flight duration in minutes
    * */
   public void setFlightDuration(){
-    if(!Helper.departureBeforeArrival(this.getDeparture().getTime(), this.getArrival().getTime()))
+    long departure = epochMillis(departureDateTime);
+    long arrival = epochMillis(arrivalDateTime);
+    if(!Helper.departureBeforeArrival(departure, arrival))
       throw new IllegalArgumentException(
-            "Arrival date & time " + formatter.format(this.getArrival()) +
-            " cannot be earlier than Departure date & time " + formatter.format(this.getDeparture())
+            "Arrival date & time " + DATE_TIME_FORMAT.format(arrivalDateTime) +
+            " cannot be earlier than Departure date & time " + DATE_TIME_FORMAT.format(departureDateTime)
       );
-    flightDuration = (int)((getArrival().getTime()-getDeparture().getTime())/(1000*60));
+    flightDuration = (int)((arrival-departure)/(1000*60));
   }
 
   /**
@@ -0,0 +1,51 @@
+/**
+ * The {code FlightValidator} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import java.util.regex.Pattern;
+
+/**
+ * Format checks for the flight dates and times entered by a user or read from a file.
+ * Every pattern is compiled once and shared, a <code>Pattern</code> is thread-safe,
+ * so checking a field does not recompile its regex the way <code>String.matches</code> does.
+ */
+public final class FlightValidator {
+    // mm/dd/yyyy - leading zeros and the century can be left out
+    private static final String DATE = "(1[0-2]|0?[1-9])/(3[01]|[12][0-9]|0?[1-9])/(?:[0-9]{2})?[0-9]{2}";
+    // h:mm - leading zero can be left out
+    private static final String TIME_12HR = "(1[0-2]|0?[1-9]):([0-5][0-9])";
+
+    private static final Pattern DATE_PATTERN = Pattern.compile(DATE);
+    private static final Pattern TIME_24HR_PATTERN = Pattern.compile("([0-9]|0[0-9]|1[0-9]|2[0-3]):[0-5][0-9]");
+    private static final Pattern TIME_12HR_PATTERN = Pattern.compile(TIME_12HR + " ?([AaPp][Mm])");
+
+    private FlightValidator(){}
+
+    /**
+     * @param input date in mm/dd/yyyy format, leading zeros can be left out
+     * @return true when the month and day are in range
+     * */
+    public static boolean isValidDate(String input){
+        return DATE_PATTERN.matcher(input).matches();
+    }
+
+    /**
+     * @param input time in 24 hr H:mm format
+     * @return true when the hour and minute are in range
+     * */
+    public static boolean isValidTime24(String input){
+        return TIME_24HR_PATTERN.matcher(input).matches();
+    }
+
+    /**
+     * @param input time in 12 hr h:mm AM|PM format, the space before the meridiem is optional
+     * @return true when the hour, minute and meridiem are valid
+     * */
+    public static boolean isValidTime12(String input){
+        return TIME_12HR_PATTERN.matcher(input).matches();
+    }
+}
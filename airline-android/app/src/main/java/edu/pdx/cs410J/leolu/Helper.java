@@ -1,7 +1,5 @@
 package edu.pdx.cs410J.leolu;
 
-import edu.pdx.cs410J.AirportNames;
-
 public class Helper {
   /**
    * @return  boolean True if departure time comes before arrival time
@@ -13,9 +11,9 @@ public class Helper {
   /**
    * @param input - airport code String to be checked if real
    * @return boolean true when airport code is from a real airport
-   * Utilizes {@code AirportNames.getNamesMap()}
+   * Utilizes {@link AirportCodes}
    * */
   public static boolean isRealAirportCode(String input){
-    return AirportNames.getNamesMap().containsKey(input);
+    return AirportCodes.isReal(input);
   }
 }
@@ -8,6 +8,28 @@
  * an airline to be created with a List of existing flights.
  * The List of flights are validated to not contain
  * any null flights, but can be an empty list, before being created.
+ *
+ * The flights are kept in a {@link SortedFlightList} so that the servlet can
+ * share an airline between request threads: writers insert under the
+ * airline's lock and publish a new snapshot, while readers only read
+ * the current snapshot and never wait on a writer. The list is always
+ * in {@link Flight#compareTo(Flight)} order, so reading the flights
+ * never sorts.
+ *
+ * Flights are also indexed by route, the pair of source and destination
+ * airport ids from {@link AirportCodes}, so that a route search only touches
+ * the matching flights.
+ *
+ * A columnar airline keeps its flights in {@link FlightColumns} instead, as primitive
+ * columns with a Flight built for each flight that is read, for airlines too large to
+ * hold a Flight object per flight. Its routes are found in the columns of the
+ * departure airport. Only flights with both airports and both datetimes can be added to it.
+ * An off-heap airline is a columnar airline whose columns are kept in direct memory,
+ * so its flights add nothing to the heap, see {@link FlightStorage}.
+ *
+ * Every change to the flights bumps the version of the airline, once the change can be read,
+ * so a reader that reads the version before the flights never pairs a version with flights
+ * older than it.
  * @author Leo Lu
  * PSU CS510 Advanced Java Winter 2023
  *
@@ -16,14 +38,41 @@ package edu.pdx.cs410J.leolu;
 
 import edu.pdx.cs410J.AbstractAirline;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Airline extends AbstractAirline<Flight> {
+  /**
+   * Where the flights of an airline are stored
+   * */
+  public enum FlightStorage {
+    /** Flight objects in a {@link SortedFlightList}, with a list for each route */
+    OBJECTS,
+    /** primitive columns on the heap, see {@link FlightColumns} */
+    COLUMNS,
+    /** fixed-size records in direct memory, outside the heap, see {@link FlightColumns} */
+    OFF_HEAP
+  }
+
+  private static final int NO_ROUTE = -1;
   private final String name;
-  private List<Flight> flights;
+  // exactly one of flights and columns is used
+  private final SortedFlightList flights;
+  private final FlightColumns columns;
+  // K,V : route key of source and destination ids, sorted flights on that route
+  private final ConcurrentMap<Integer, SortedFlightList> routes = new ConcurrentHashMap<>();
+  // tells the versions of this airline apart from those of an earlier airline of the same name
+  private final long instanceId = ThreadLocalRandom.current().nextLong();
+  // only written by writers, which hold the airline's lock
+  private volatile long version;
   private String error="";
 
 
@@ -33,9 +82,28 @@ public class Airline extends AbstractAirline<Flight> {
    * @param name Airline Name
    * */
   public Airline(String name){
+    this(name, false);
+  }
+
+  /**
+   * Constructs a new instance of <code>Airline</code> with a given name
+   * @param name Airline Name
+   * @param columnar if True, flights are stored in primitive columns, see {@link FlightColumns}
+   * */
+  public Airline(String name, boolean columnar){
+    this(name, columnar ? FlightStorage.COLUMNS : FlightStorage.OBJECTS);
+  }
+
+  /**
+   * Constructs a new instance of <code>Airline</code> with a given name
+   * @param name Airline Name
+   * @param storage where the flights are stored
+   * */
+  public Airline(String name, FlightStorage storage){
     validateAirlineName(name);
     this.name = name;
-    flights = new ArrayList<Flight>();
+    this.flights = storage == FlightStorage.OBJECTS ? new SortedFlightList() : null;
+    this.columns = storage == FlightStorage.OBJECTS ? null : new FlightColumns(storage == FlightStorage.OFF_HEAP);
   }
 
   /**
@@ -45,11 +113,10 @@ public class Airline extends AbstractAirline<Flight> {
    * @param flights ArrayList of flights of Flight class {@link Flight}
    * */
   public Airline(String name, ArrayList<Flight> flights){
-    validateAirlineName(name);
+    this(name);
     validateFlightList(flights);
 
-    this.name = name;
-    this.flights = flights;
+    if(flights != null) addFlights(flights);
   }
 
   /**
@@ -61,29 +128,167 @@ public class Airline extends AbstractAirline<Flight> {
   }
 
   /**
-   * Adds a flight to the ArrayList
+   * Inserts a flight at its sorted position and publishes a new snapshot
    * Validates that the flight is not null before adding
+   * Writers to the same airline are serialized, readers are never blocked
    * @param flight Flight that is to be added
    * @throws  NullPointerException if flight is null
+   * @throws IllegalArgumentException if the airline is columnar and the flight is missing an airport or datetime
    * */
   @Override
-  public void addFlight(Flight flight) {
+  public synchronized void addFlight(Flight flight) {
     try{
       if(flight == null) throw new NullPointerException("Cannot add a null flight!");
+      if(columns != null && !isComplete(flight))
+        throw new IllegalArgumentException("Cannot add a flight without both airports and datetimes to a columnar airline!");
     }catch(Exception e) {
       error = e.getMessage();
       System.out.println(e.getMessage());
+      return;
+    }
+    if(columns != null){
+      columns.add(flight);
+    }else{
+      this.flights.add(flight);
+      int route = routeKey(flight.getSourceId(), flight.getDestinationId());
+      if(route != NO_ROUTE) routes.computeIfAbsent(route, k -> new SortedFlightList()).add(flight);
+    }
+    version++;
+  }
+
+  /**
+   * Adds every flight with a single sort of the flight list and of each
+   * route touched, instead of one insert per flight
+   * Null flights are skipped, and so are incomplete flights of a columnar airline
+   * @param added flights to be added, in any order
+   * */
+  public synchronized void addFlights(Collection<Flight> added) {
+    List<Flight> valid = new ArrayList<>(added.size());
+    Map<Integer, List<Flight>> byRoute = new HashMap<>();
+    for(Flight fl: added){
+      if(fl == null || (columns != null && !isComplete(fl))) continue;
+      valid.add(fl);
+      if(columns != null) continue;
+      int route = routeKey(fl.getSourceId(), fl.getDestinationId());
+      if(route != NO_ROUTE) byRoute.computeIfAbsent(route, k -> new ArrayList<>()).add(fl);
+    }
+    if(valid.isEmpty()) return;
+    if(columns != null){
+      columns.addAll(valid);
+    }else{
+      this.flights.addAll(valid);
+      byRoute.forEach((route, routeFlights) ->
+              routes.computeIfAbsent(route, k -> new SortedFlightList()).addAll(routeFlights));
     }
-    this.flights.add(flight);
+    version++;
   }
 
   /**
-   * @return  ArrayList flights
+   * The flights are kept sorted as they are added, so this returns the
+   * current snapshot without sorting or copying
+   * @return  unmodifiable, sorted list of flights
    * */
   @Override
-  public Collection<Flight> getFlights() {
-    Collections.sort(flights);
-    return flights;
+  public List<Flight> getFlights() {
+    return columns != null ? columns.snapshot() : this.flights.snapshot();
+  }
+
+  /**
+   * Looks up the flights of a single route in the route index
+   * @param src departure airport code, in any case
+   * @param dest arrival airport code, in any case
+   * @return unmodifiable, sorted list of the flights from src to dest,
+   * empty when the airline has no such flights
+   * */
+  public List<Flight> getFlights(String src, String dest) {
+    int srcId = AirportCodes.idOf(src), destId = AirportCodes.idOf(dest);
+    int route = routeKey(srcId, destId);
+    if(columns != null) return route == NO_ROUTE ? Collections.emptyList() : columns.snapshot().route(route, srcId, destId);
+    SortedFlightList routeFlights = route == NO_ROUTE ? null : routes.get(route);
+    return routeFlights == null ? Collections.emptyList() : routeFlights.snapshot();
+  }
+
+  /**
+   * Finds the flights from a source airport that depart in a time range.
+   * Flights sort by departure airport and then departure time, so the flights of a source,
+   * or of a route, are already in departure order and the range is found with two binary searches
+   * @param src departure airport code, in any case
+   * @param dest arrival airport code, in any case, null for flights to any airport
+   * @param departAfter earliest departure, inclusive, null for no lower bound
+   * @param departBefore latest departure, exclusive, null for no upper bound
+   * @return unmodifiable, sorted view of the flights that depart in the range
+   * */
+  public List<Flight> getFlightsDeparting(String src, String dest, LocalDateTime departAfter, LocalDateTime departBefore) {
+    List<Flight> flights = dest == null ? getFlights() : getFlights(src, dest);
+    int id = AirportCodes.idOf(src);
+    if(id == AirportCodes.NONE) return Collections.emptyList();
+    int from = firstDepartingAt(flights, id, departAfter == null ? LocalDateTime.MIN : departAfter);
+    int to = firstDepartingAt(flights, id, departBefore == null ? LocalDateTime.MAX : departBefore);
+    return from < to ? flights.subList(from, to) : Collections.emptyList();
+  }
+
+  /**
+   * @return index of the first flight that sorts at or after a flight from src departing at the given time
+   * */
+  private static int firstDepartingAt(List<Flight> flights, int src, LocalDateTime departure) {
+    int low = 0, high = flights.size();
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      Flight fl = flights.get(mid);
+      int compare = fl.getSourceId() != src ? Integer.compare(fl.getSourceId(), src)
+              : fl.getDepartureDateTime().compareTo(departure);
+      if(compare < 0) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * @return number of changes to the flights of this airline, starting at 0 and increasing with
+   * every {@link #addFlight(Flight)} and {@link #addFlights(Collection)} that adds a flight
+   * */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return random id of this airline object, so that the same version of two airlines
+   * of the same name, such as before and after a restart, can be told apart
+   * */
+  long getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * @return true if the flights of this airline are stored in primitive columns
+   * */
+  public boolean isColumnar() {
+    return columns != null;
+  }
+
+  /**
+   * @return where the flights of this airline are stored
+   * */
+  public FlightStorage getFlightStorage() {
+    if(columns == null) return FlightStorage.OBJECTS;
+    return columns.isOffHeap() ? FlightStorage.OFF_HEAP : FlightStorage.COLUMNS;
+  }
+
+  /**
+   * @return true if the flight has both airports and both datetimes, as every flight of a columnar airline must
+   * */
+  private static boolean isComplete(Flight flight) {
+    return flight.getSourceId() != AirportCodes.NONE && flight.getDestinationId() != AirportCodes.NONE
+            && flight.getDepartureDateTime() != null && flight.getArrivalDateTime() != null;
+  }
+
+  /**
+   * @return key of the route index for the given airport ids,
+   * {@link #NO_ROUTE} when either id is missing
+   * */
+  private static int routeKey(int src, int dest) {
+    if(src == AirportCodes.NONE || dest == AirportCodes.NONE) return NO_ROUTE;
+    return src * AirportCodes.COUNT + dest;
   }
 
   /**
@@ -0,0 +1,589 @@
+/**
+ * The {code AirlineJournal} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Write-ahead log and snapshots that make an {@link AirlineRepository} survive a restart.
+ *
+ * Every change to the repository is appended to the current log file before the
+ * request that made it is answered. Changes are written under the journal's lock in
+ * the same order they are applied, then made durable with a group commit: the first
+ * writer to need an fsync forces the log for every change appended so far, while the
+ * writers that arrive during that fsync wait and are all covered by the next one.
+ *
+ * A batch of flights is a single record, so it is recovered either whole or not at all,
+ * but it counts as one change per flight towards the next snapshot.
+ *
+ * After every <code>snapshotInterval</code> changes the log is rotated and the
+ * airlines as of the rotation are written to a compact binary snapshot on a
+ * background thread, after which the older logs are deleted. A snapshot of
+ * generation N holds every change of the logs before N, so on startup the newest
+ * snapshot is loaded and only the logs from its generation on are replayed.
+ *
+ * Log records are <code>length, crc32, payload</code>, a record cut short by a crash
+ * fails its checksum and the log is truncated before it.
+ *
+ * A change is applied before its record is written, so a change the repository throws on
+ * is never logged. When writing or forcing the log fails the repository already holds changes
+ * that may not be in the log, and the log may end in part of a record. The journal is then
+ * failed: the writers waiting on the log and every later change are refused with an exception,
+ * and no snapshot is written, so nothing that was not durable is made durable by a snapshot either.
+ * The repository has to be created again from the directory to accept changes again.
+ */
+final class AirlineJournal implements Closeable {
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+    private static final int SNAPSHOT_MAGIC = 0x414C4E53; // "ALNS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte FLIGHT = 1, AIRLINE = 2, CLEAR = 3, FLIGHTS = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final AirlineRepository airlines;
+    private final int snapshotInterval;
+    private final LogSync logSync;
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "airline-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // guarded by this
+    private long generation;
+    private FileOutputStream file;
+    private DataOutputStream out;
+    private long appended;
+    private int sinceSnapshot;
+    private boolean snapshotPending;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream payload = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    // guarded by syncLock
+    private final Object syncLock = new Object();
+    private long synced;
+    private boolean syncing;
+    // set once, when the log could not be written or forced
+    private volatile IOException failure;
+
+    /**
+     * Forces the log file to disk, see {@link #FORCE}
+     * */
+    interface LogSync {
+        void force(FileChannel channel) throws IOException;
+
+        /**
+         * @return the stream the records of a log file are written through
+         * */
+        default OutputStream stream(FileOutputStream file) {
+            return new BufferedOutputStream(file, BUFFER_SIZE);
+        }
+    }
+
+    static final LogSync FORCE = channel -> channel.force(false);
+
+    private AirlineJournal(File directory, AirlineRepository airlines, int snapshotInterval, LogSync logSync) {
+        this.directory = directory;
+        this.airlines = airlines;
+        this.snapshotInterval = snapshotInterval;
+        this.logSync = logSync;
+    }
+
+    /**
+     * Loads the newest snapshot and replays the logs after it into the repository,
+     * then starts a new log for the changes that follow
+     * @param directory directory of the snapshot and log files, created when it does not exist
+     * @param airlines empty repository that is filled with the recovered airlines
+     * @param snapshotInterval number of changes between two snapshots
+     * @param logSync forces the log to disk and opens its stream, {@link #FORCE} but for tests
+     * @return the journal the repository should log its changes to
+     * @throws IOException if the directory can not be used or a snapshot is corrupt
+     * */
+    static AirlineJournal open(File directory, AirlineRepository airlines, int snapshotInterval, LogSync logSync) throws IOException {
+        Files.createDirectories(directory.toPath());
+        AirlineJournal journal = new AirlineJournal(directory, airlines, snapshotInterval, logSync);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Logs a flight added to the named airline
+     * @param apply adds the flight to the repository, called while the journal is locked
+     * @return the value of apply, once the flight is durable
+     * */
+    <T> T logFlight(String airlineName, Flight flight, Supplier<T> apply) {
+        return append(() -> {
+            payload.writeByte(FLIGHT);
+            payload.writeUTF(airlineName);
+            writeFlight(payload, flight);
+        }, apply, 1);
+    }
+
+    /**
+     * Logs a batch of flights added to the named airline as one record
+     * @param apply adds the flights to the repository, called while the journal is locked
+     * @return the value of apply, once the flights are durable
+     * */
+    <T> T logFlights(String airlineName, Collection<Flight> flights, Supplier<T> apply) {
+        return append(() -> {
+            payload.writeByte(FLIGHTS);
+            writeAirline(payload, airlineName, flights);
+        }, apply, Math.max(1, flights.size()));
+    }
+
+    /**
+     * Logs an airline that replaces any airline with the same name, with all of its flights
+     * @param apply stores the airline in the repository, called while the journal is locked
+     * */
+    void logAirline(Airline airline, Runnable apply) {
+        append(() -> {
+            payload.writeByte(AIRLINE);
+            writeAirline(payload, airline.getName(), airline.getFlights());
+        }, () -> {
+            apply.run();
+            return null;
+        }, 1);
+    }
+
+    /**
+     * Logs the removal of every airline
+     * @param apply clears the repository, called while the journal is locked
+     * */
+    void logClear(Runnable apply) {
+        append(() -> payload.writeByte(CLEAR), () -> {
+            apply.run();
+            return null;
+        }, 1);
+    }
+
+    private interface RecordWriter {
+        void write() throws IOException;
+    }
+
+    /**
+     * Applies a change and appends its record under the journal's lock,
+     * so the log and the repository see changes in the same order,
+     * then waits for the group commit that makes the record durable
+     * @param changes number of changes in the record, counted towards the next snapshot
+     * @throws RuntimeException if the record could not be made durable, or the journal has failed before,
+     * and any exception of apply, in which case nothing is logged
+     * */
+    private <T> T append(RecordWriter writer, Supplier<T> apply, int changes) {
+        long entry;
+        T result;
+        boolean snapshotDue;
+        try {
+            synchronized (this) {
+                checkNotFailed();
+                record.reset();
+                writer.write();
+                result = apply.get();
+                crc.reset();
+                crc.update(record.toByteArray(), 0, record.size());
+                try {
+                    out.writeInt(record.size());
+                    out.writeInt((int) crc.getValue());
+                    record.writeTo(out);
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+                entry = ++appended;
+                sinceSnapshot += changes;
+                snapshotDue = sinceSnapshot >= snapshotInterval && !snapshotPending;
+                if (snapshotDue) snapshotPending = true;
+            }
+            sync(entry);
+        } catch (IOException e) {
+            System.err.println("Could not write to the airline log in " + directory);
+            throw new RuntimeException(e);
+        }
+        if (snapshotDue) snapshots.execute(this::snapshotInBackground);
+        return result;
+    }
+
+    /**
+     * Group commit: returns once the log is forced to disk up to the given entry.
+     * Only one thread forces the log at a time and each force covers every entry
+     * appended before it started
+     * @throws IOException if the log could not be forced, now or by an earlier force
+     * */
+    private void sync(long entry) throws IOException {
+        synchronized (syncLock) {
+            while (synced < entry && syncing) await();
+            if (synced >= entry) return;
+            checkNotFailed();
+            syncing = true;
+        }
+        long forced = 0;
+        try {
+            FileChannel channel;
+            synchronized (this) {
+                out.flush();
+                forced = appended;
+                channel = file.getChannel();
+            }
+            logSync.force(channel);
+        } catch (IOException e) {
+            forced = 0;
+            fail(e);
+            throw e;
+        } finally {
+            finishSync(forced);
+        }
+    }
+
+    /**
+     * Fails the journal, the first failure is kept as the cause of every refused change
+     * */
+    private void fail(IOException e) {
+        if (failure == null) failure = e;
+    }
+
+    private void checkNotFailed() throws IOException {
+        IOException cause = failure;
+        if (cause != null) throw new IOException("The airline log in " + directory + " could not be written before, changes are refused", cause);
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            syncLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the airline log to be written");
+        }
+    }
+
+    /**
+     * Waits until no other thread is forcing the log and then holds the sync,
+     * so the log can be rotated without a force on a closed file
+     * */
+    private void startSync() throws InterruptedIOException {
+        synchronized (syncLock) {
+            while (syncing) await();
+            syncing = true;
+        }
+    }
+
+    private void finishSync(long forced) {
+        synchronized (syncLock) {
+            synced = Math.max(synced, forced);
+            syncing = false;
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * Rotates the log and writes a snapshot, run on the snapshot thread
+     * */
+    private void snapshotInBackground() {
+        try {
+            writeSnapshot(rotate());
+        } catch (IOException e) {
+            System.err.println("Could not write an airline snapshot in " + directory + ": " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                snapshotPending = false;
+            }
+        }
+    }
+
+    /**
+     * Forces and closes the current log and starts the log of the next generation.
+     * The airlines are captured in the same locked step, so they hold exactly
+     * the changes of the logs before the new generation
+     * @return the airlines to write to the snapshot of the new generation
+     * */
+    private Snapshot rotate() throws IOException {
+        startSync();
+        long forced = 0;
+        try {
+            synchronized (this) {
+                checkNotFailed();
+                out.flush();
+                try {
+                    logSync.force(file.getChannel());
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+                out.close();
+                forced = appended;
+                openLog(generation + 1);
+                sinceSnapshot = 0;
+                return new Snapshot(generation, airlines.contents());
+            }
+        } finally {
+            finishSync(forced);
+        }
+    }
+
+    /**
+     * Airlines as of the start of a log generation
+     * */
+    private static final class Snapshot {
+        final long generation;
+        final Map<String, Collection<Flight>> airlines;
+
+        Snapshot(long generation, Map<String, Collection<Flight>> airlines) {
+            this.generation = generation;
+            this.airlines = airlines;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file that is forced to disk and then renamed,
+     * so a snapshot file is either complete or missing. Logs and snapshots of older
+     * generations are deleted afterwards
+     * */
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        File tmp = new File(directory, "snapshot-" + snapshot.generation + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE), new CRC32());
+            DataOutputStream data = new DataOutputStream(checked);
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_VERSION);
+            data.writeInt(snapshot.airlines.size());
+            for (Map.Entry<String, Collection<Flight>> airline : snapshot.airlines.entrySet()) {
+                writeAirline(data, airline.getKey(), airline.getValue());
+            }
+            data.flush();
+            new DataOutputStream(fos).writeLong(checked.getChecksum().getValue());
+            fos.getChannel().force(true);
+        }
+        Files.move(tmp.toPath(), snapshotFile(snapshot.generation).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+        for (long old : generations("log-")) if (old < snapshot.generation) logFile(old).delete();
+        for (long old : generations("snapshot-")) if (old < snapshot.generation) snapshotFile(old).delete();
+    }
+
+    /**
+     * Makes the rename of a snapshot durable, not every platform can open a directory
+     * */
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // the rename is still atomic, only its durability is left to the file system
+        }
+    }
+
+    /**
+     * Loads the newest snapshot, replays the logs from its generation on,
+     * and opens a new log after the newest generation found
+     * */
+    private void recover() throws IOException {
+        File[] stale = directory.listFiles((dir, name) -> name.endsWith(".tmp"));
+        if (stale != null) for (File tmp : stale) tmp.delete();
+
+        Map<String, List<Flight>> recovered = new LinkedHashMap<>();
+        List<Long> snapshotGenerations = generations("snapshot-");
+        long start = 0;
+        if (!snapshotGenerations.isEmpty()) {
+            start = snapshotGenerations.get(snapshotGenerations.size() - 1);
+            readSnapshot(snapshotFile(start), recovered);
+        }
+        long newest = start;
+        for (long log : generations("log-")) {
+            newest = Math.max(newest, log);
+            if (log >= start) replay(logFile(log), recovered);
+        }
+        for (Map.Entry<String, List<Flight>> airline : recovered.entrySet()) {
+            Airline restored = airlines.newAirline(airline.getKey());
+            restored.addFlights(airline.getValue());
+            airlines.put(restored);
+        }
+        openLog(newest + 1);
+    }
+
+    private void readSnapshot(File snapshot, Map<String, List<Flight>> recovered) throws IOException {
+        long length = snapshot.length();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(snapshot), BUFFER_SIZE)) {
+            CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+            DataInputStream data = new DataInputStream(checked);
+            if (length < 20 || data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(snapshot + " is not an airline snapshot");
+            }
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) readAirline(data, recovered);
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(in).readLong() != expected) {
+                throw new IOException(snapshot + " is corrupt, its checksum does not match");
+            }
+        } catch (EOFException e) {
+            throw new IOException(snapshot + " is truncated", e);
+        }
+    }
+
+    /**
+     * Applies every complete record of the log, a torn record at the end is cut off
+     * */
+    private void replay(File log, Map<String, List<Flight>> recovered) throws IOException {
+        long length = log.length();
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(log), BUFFER_SIZE))) {
+            while (length - valid >= 8) {
+                int size = in.readInt();
+                int checksum = in.readInt();
+                if (size <= 0 || size > length - valid - 8) break;
+                byte[] bytes = new byte[size];
+                in.readFully(bytes);
+                crc.reset();
+                crc.update(bytes, 0, size);
+                if ((int) crc.getValue() != checksum) break;
+                apply(new DataInputStream(new ByteArrayInputStream(bytes)), recovered);
+                valid += 8 + size;
+            }
+        }
+        if (valid < length) {
+            System.err.println("Ignoring " + (length - valid) + " bytes of an incomplete record at the end of " + log);
+            try (RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+                raf.setLength(valid);
+            }
+        }
+    }
+
+    private static void apply(DataInputStream record, Map<String, List<Flight>> recovered) throws IOException {
+        byte type = record.readByte();
+        switch (type) {
+            case FLIGHT:
+                String airlineName = record.readUTF();
+                recovered.computeIfAbsent(airlineName, k -> new ArrayList<>()).add(readFlight(record));
+                break;
+            case AIRLINE:
+                readAirline(record, recovered);
+                break;
+            case CLEAR:
+                recovered.clear();
+                break;
+            case FLIGHTS:
+                String batchAirlineName = record.readUTF();
+                int count = record.readInt();
+                List<Flight> batch = recovered.computeIfAbsent(batchAirlineName, k -> new ArrayList<>());
+                for (int i = 0; i < count; i++) batch.add(readFlight(record));
+                break;
+            default:
+                throw new IOException("Unknown airline log record type " + type);
+        }
+    }
+
+    private static void writeAirline(DataOutputStream data, String name, Collection<Flight> flights) throws IOException {
+        data.writeUTF(name);
+        data.writeInt(flights.size());
+        for (Flight fl : flights) writeFlight(data, fl);
+    }
+
+    /**
+     * Reads an airline and replaces any recovered airline with the same name
+     * */
+    private static void readAirline(DataInputStream data, Map<String, List<Flight>> recovered) throws IOException {
+        String name = data.readUTF();
+        int count = data.readInt();
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) flights.add(readFlight(data));
+        recovered.put(name, flights);
+    }
+
+    /**
+     * A flight is its number, the ids of its airports and its datetimes in epoch minutes
+     * */
+    private static void writeFlight(DataOutputStream data, Flight fl) throws IOException {
+        data.writeInt(fl.getNumber());
+        data.writeShort(fl.getSourceId());
+        data.writeShort(fl.getDestinationId());
+        data.writeInt(toMinutes(fl.getDepartureDateTime()));
+        data.writeInt(toMinutes(fl.getArrivalDateTime()));
+    }
+
+    private static Flight readFlight(DataInputStream data) throws IOException {
+        int number = data.readInt();
+        int src = data.readShort();
+        int dest = data.readShort();
+        LocalDateTime departure = fromMinutes(data.readInt());
+        LocalDateTime arrival = fromMinutes(data.readInt());
+        return new Flight(number, src, departure, dest, arrival);
+    }
+
+    private static int toMinutes(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static LocalDateTime fromMinutes(int minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private void openLog(long generation) throws IOException {
+        this.generation = generation;
+        this.file = new FileOutputStream(logFile(generation), true);
+        this.out = new DataOutputStream(logSync.stream(file));
+    }
+
+    private File logFile(long generation) {
+        return new File(directory, "log-" + generation + ".dat");
+    }
+
+    private File snapshotFile(long generation) {
+        return new File(directory, "snapshot-" + generation + ".dat");
+    }
+
+    /**
+     * @return sorted generations of the files with the given prefix
+     * */
+    private List<Long> generations(String prefix) {
+        List<Long> found = new ArrayList<>();
+        String[] names = directory.list();
+        if (names == null) return found;
+        for (String name : names) {
+            if (!name.startsWith(prefix) || !name.endsWith(".dat")) continue;
+            try {
+                found.add(Long.parseLong(name.substring(prefix.length(), name.length() - 4)));
+            } catch (NumberFormatException e) {
+                // not one of the journal's files
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * Waits for a running snapshot, then writes a final snapshot so the next start
+     * does not have to replay the log, and closes the log.
+     * A failed journal only closes the log, its changes are recovered from the log
+     * @throws IOException if the final snapshot can not be written, or the journal has failed
+     * */
+    @Override
+    public void close() throws IOException {
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writeSnapshot(rotate());
+        } finally {
+            synchronized (this) {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package edu.pdx.cs410J.leolu;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe store of the airlines served by {@link AirlineServlet}.
+ * Airlines are kept in a <code>ConcurrentHashMap</code>, so creating or
+ * looking up one airline only locks that airline's bin of the map.
+ * Flights are added through the airline's own copy-on-write list,
+ * which keeps writers to different airlines independent of each other
+ * and lets readers serialize a consistent snapshot without blocking writers.
+ *
+ * A repository created with {@link #durable(File)} also logs every change to an
+ * {@link AirlineJournal}, so its airlines are recovered when it is created again
+ * on the same directory. Changes to a durable repository are serialized by the journal.
+ *
+ * A repository created with <code>columnarFlights</code> creates every airline as a
+ * columnar {@link Airline}, which stores its flights in primitive columns, and one created
+ * with a {@link Airline.FlightStorage} creates every airline with that storage, such as
+ * off the heap for a large repository.
+ */
+public class AirlineRepository implements Closeable {
+
+    // K,V : airlineName , Airline Object
+    private final ConcurrentMap<String, Airline> airlines = new ConcurrentHashMap<>();
+    private AirlineJournal journal;
+    private final Airline.FlightStorage flightStorage;
+
+    /**
+     * Creates a repository that only keeps its airlines in memory
+     * */
+    public AirlineRepository() {
+        this(Airline.FlightStorage.OBJECTS);
+    }
+
+    /**
+     * Creates a repository that only keeps its airlines in memory
+     * @param columnarFlights if True, airlines are created columnar, see {@link Airline#isColumnar()}
+     * */
+    public AirlineRepository(boolean columnarFlights) {
+        this(columnarFlights ? Airline.FlightStorage.COLUMNS : Airline.FlightStorage.OBJECTS);
+    }
+
+    /**
+     * Creates a repository that only keeps its airlines in memory
+     * @param flightStorage where the flights of every airline are stored
+     * */
+    public AirlineRepository(Airline.FlightStorage flightStorage) {
+        this.flightStorage = flightStorage;
+    }
+
+    /**
+     * Creates a repository that is persisted in the given directory,
+     * recovering the airlines already stored there
+     * @param directory directory of the journal files
+     * @throws IOException if the journal can not be read or created
+     * */
+    public static AirlineRepository durable(File directory) throws IOException {
+        return durable(directory, false);
+    }
+
+    /**
+     * @param columnarFlights if True, airlines are created columnar, see {@link Airline#isColumnar()}
+     * @see #durable(File)
+     * */
+    public static AirlineRepository durable(File directory, boolean columnarFlights) throws IOException {
+        return durable(directory, columnarFlights ? Airline.FlightStorage.COLUMNS : Airline.FlightStorage.OBJECTS);
+    }
+
+    /**
+     * @param flightStorage where the flights of every airline are stored
+     * @see #durable(File)
+     * */
+    public static AirlineRepository durable(File directory, Airline.FlightStorage flightStorage) throws IOException {
+        return durable(directory, AirlineJournal.DEFAULT_SNAPSHOT_INTERVAL, flightStorage);
+    }
+
+    /**
+     * @param snapshotInterval number of changes between two snapshots of the journal
+     * */
+    static AirlineRepository durable(File directory, int snapshotInterval) throws IOException {
+        return durable(directory, snapshotInterval, AirlineJournal.FORCE);
+    }
+
+    /**
+     * @param logSync forces the journal's log to disk and opens its stream, replaced by tests to make writing fail
+     * */
+    static AirlineRepository durable(File directory, int snapshotInterval, AirlineJournal.LogSync logSync) throws IOException {
+        return durable(directory, snapshotInterval, Airline.FlightStorage.OBJECTS, logSync);
+    }
+
+    private static AirlineRepository durable(File directory, int snapshotInterval, Airline.FlightStorage flightStorage) throws IOException {
+        return durable(directory, snapshotInterval, flightStorage, AirlineJournal.FORCE);
+    }
+
+    private static AirlineRepository durable(File directory, int snapshotInterval, Airline.FlightStorage flightStorage,
+                                             AirlineJournal.LogSync logSync) throws IOException {
+        AirlineRepository repository = new AirlineRepository(flightStorage);
+        repository.journal = AirlineJournal.open(directory, repository, snapshotInterval, logSync);
+        return repository;
+    }
+
+    /**
+     * @param airlineName name of the airline
+     * @return the airline with the given name, or null if it does not exist
+     * */
+    public Airline get(String airlineName) {
+        return airlineName == null ? null : airlines.get(airlineName);
+    }
+
+    /**
+     * @param airlineName name of the airline
+     * @return true if an airline with the given name exists
+     * */
+    public boolean contains(String airlineName) {
+        return airlineName != null && airlines.containsKey(airlineName);
+    }
+
+    /**
+     * Adds a flight to the named airline, atomically creating the airline first
+     * when it does not exist yet
+     * @param airlineName name of the airline
+     * @param flight flight to be added
+     * @return the airline the flight was added to
+     * */
+    public Airline addFlight(String airlineName, Flight flight) {
+        if (journal != null) return journal.logFlight(airlineName, flight, () -> insert(airlineName, flight));
+        return insert(airlineName, flight);
+    }
+
+    private Airline insert(String airlineName, Flight flight) {
+        Airline airline = airlines.computeIfAbsent(airlineName, this::newAirline);
+        airline.addFlight(flight);
+        return airline;
+    }
+
+    /**
+     * Adds a batch of flights to the named airline at once, creating the airline first
+     * when it does not exist yet. The airline sorts the batch in with a single sort, and a
+     * durable repository logs the batch as one record, so it is recovered whole or not at all
+     * @param airlineName name of the airline
+     * @param flights flights to be added
+     * @return the airline the flights were added to
+     * */
+    public Airline addFlights(String airlineName, Collection<Flight> flights) {
+        if (journal != null) return journal.logFlights(airlineName, flights, () -> insertAll(airlineName, flights));
+        return insertAll(airlineName, flights);
+    }
+
+    private Airline insertAll(String airlineName, Collection<Flight> flights) {
+        Airline airline = airlines.computeIfAbsent(airlineName, this::newAirline);
+        airline.addFlights(flights);
+        return airline;
+    }
+
+    /**
+     * @param airlineName name of the airline
+     * @return a new, empty airline stored the way this repository stores its airlines
+     * */
+    Airline newAirline(String airlineName) {
+        return new Airline(airlineName, flightStorage);
+    }
+
+    /**
+     * Stores the airline, replacing any airline with the same name
+     * @param airline airline to be stored
+     * */
+    public void put(Airline airline) {
+        if (journal != null) journal.logAirline(airline, () -> airlines.put(airline.getName(), airline));
+        else airlines.put(airline.getName(), airline);
+    }
+
+    /**
+     * Removes every airline
+     * */
+    public void clear() {
+        if (journal != null) journal.logClear(airlines::clear);
+        else airlines.clear();
+    }
+
+    /**
+     * @return the current flights of every airline, read by the journal while changes are locked out
+     * */
+    Map<String, Collection<Flight>> contents() {
+        Map<String, Collection<Flight>> contents = new LinkedHashMap<>();
+        for (Airline airline : airlines.values()) contents.put(airline.getName(), airline.getFlights());
+        return contents;
+    }
+
+    /**
+     * Writes a final snapshot and closes the journal of a durable repository
+     * */
+    @Override
+    public void close() throws IOException {
+        if (journal != null) journal.close();
+    }
+}
@@ -4,24 +4,68 @@ import com.google.common.annotations.VisibleForTesting;
 import edu.pdx.cs410J.ParserException;
 import edu.pdx.cs410J.web.HttpRequestHelper;
 
-import java.io.IOException;
-import java.util.Map;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static edu.pdx.cs410J.web.HttpRequestHelper.Response;
 import static edu.pdx.cs410J.web.HttpRequestHelper.RestException;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
  * A helper class for accessing the rest client.  Note that this class provides
  * an example of how to make gets and posts to a URL.  You'll need to change it
  * to do something other than just send dictionary entries.
+ *
+ * Every GET is sent on one <code>java.net.http.HttpClient</code>, created on the first call,
+ * whose connections are pooled and kept alive between requests. The <code>...Async</code>
+ * methods do not block, and the blocking ones wait for them. Each response body is parsed
+ * as it arrives, without first reading it into a String. They ask for compact JSON by default,
+ * see {@link #setResponseType(String)}, and decode the body by its content type: JSON with
+ * {@link JsonParser}, text with {@link TextParser} and XML with {@link StreamingXmlParser}.
+ * They accept gzip and deflate compressed bodies, which are decompressed as they are parsed.
+ * The airlines they answer with are kept, with their ETag, for the last {@value #CACHE_SIZE} GETs,
+ * and a GET that is sent again asks for the airline only if it has changed since, so polling an
+ * airline that did not change is answered by the servlet with 304 and by the client from its copy.
+ * The airlines are shared with the cache, and must not be changed.
  */
 public class AirlineRestClient
 {
     private static final String WEB_APP = "airline";
     private static final String SERVLET = "flights";
+    static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    static final int CACHE_SIZE = 16;
 
     private final HttpRequestHelper http;
+    private final String url;
+    private HttpClient async;
+    private ExecutorService parsers;
+    private volatile String responseType = AirlineServlet.JSON_TYPE;
+    // K,V : media type and URI of a GET, the last airline answered to it with an ETag, least recently used first
+    private final Map<String, CachedAirline> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedAirline>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedAirline> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
 
 
     /**
@@ -32,41 +76,312 @@ public class AirlineRestClient
     public AirlineRestClient( String hostName, int port )
     {
         //request url is : http://localhost:8080/airline/flights
-        this(new HttpRequestHelper(String.format("http://%s:%d/%s/%s", hostName, port, WEB_APP, SERVLET)));
+        this(String.format("http://%s:%d/%s/%s", hostName, port, WEB_APP, SERVLET));
+    }
+
+    private AirlineRestClient(String url) {
+        this.http = new HttpRequestHelper(url);
+        this.url = url;
     }
 
     @VisibleForTesting
-    AirlineRestClient(HttpRequestHelper http) {
-        this.http = http;
+    AirlineRestClient(HttpClient async, String url) {
+        this.http = new HttpRequestHelper(url);
+        this.url = url;
+        this.async = async;
     }
 
     /**
-     * getAirline() method
-     * @return Airline object retrieved from Http Response using XmlParser to parse the XML content
+     * Sets the media type asked for by the GETs
+     * @param mediaType {@value AirlineServlet#JSON_TYPE}, {@value AirlineServlet#TEXT_TYPE} or {@value AirlineServlet#XML_TYPE}
+     * @throws IllegalArgumentException if the servlet can not answer with the media type
      * */
-    public Airline getAirline(String airlineName, String src, String dest) {
-        Airline found = null;
-        Response response = null;
-        try{
+    public void setResponseType(String mediaType) {
+        if(!mediaType.equals(AirlineServlet.JSON_TYPE) && !mediaType.equals(AirlineServlet.TEXT_TYPE)
+                && !mediaType.equals(AirlineServlet.XML_TYPE)){
+            throw new IllegalArgumentException("Unsupported response type: " + mediaType);
+        }
+        this.responseType = mediaType;
+    }
+
+    /**
+     * Gets an airline without blocking, see {@link #getAirline(String, String, String)}
+     * @param src departure airport code, null for every route
+     * @param dest arrival airport code, null for every route
+     * @return future completed with the airline, or completed exceptionally with a
+     * {@link RestException} if the servlet does not answer with 200, or a {@link ParserException}
+     * if the answer is not a valid airline document
+     * */
+    public CompletableFuture<Airline> getAirlineAsync(String airlineName, String src, String dest) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(AirlineServlet.AIRLINE_NAME_PARAM, airlineName);
+        if(src!=null || dest!=null){
+            params.put(AirlineServlet.SOURCE_PARAM, src);
+            params.put(AirlineServlet.DESTINATION_PARAM, dest);
+        }
+        return getAsync(params);
+    }
 
-            if(src==null && dest ==null)
-                response = http.get(Map.of(AirlineServlet.AIRLINE_NAME_PARAM,airlineName));
-            else
-                response = http.get(Map.of(AirlineServlet.AIRLINE_NAME_PARAM,airlineName,
-                        AirlineServlet.SOURCE_PARAM,src,
-                        AirlineServlet.DESTINATION_PARAM,dest));
+    /**
+     * Gets a single page of the flights of an airline without blocking,
+     * see {@link #getAirlinePage(String, String, String, int, String)}
+     * @return future completed with the airline of the page, or completed exceptionally
+     * as by {@link #getAirlineAsync(String, String, String)}
+     * */
+    public CompletableFuture<Airline> getAirlinePageAsync(String airlineName, String src, String dest, int limit, String cursor) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(AirlineServlet.AIRLINE_NAME_PARAM, airlineName);
+        if(src!=null || dest!=null){
+            params.put(AirlineServlet.SOURCE_PARAM, src);
+            params.put(AirlineServlet.DESTINATION_PARAM, dest);
+        }
+        params.put(AirlineServlet.LIMIT_PARAM, Integer.toString(limit));
+        if(cursor!=null) params.put(AirlineServlet.CURSOR_PARAM, cursor);
+        return getAsync(params);
+    }
 
-            String xmlInStringFormat = response.getContent();
-            XmlParser parser = new XmlParser(xmlInStringFormat, true);
-            found = parser.parse();
+    /**
+     * Sends a GET on the pooled client. The body is handed over as a stream once the headers
+     * arrive, and is parsed on the client's parser threads, so neither the selector thread of
+     * the HttpClient nor the caller waits on the parse.
+     * When an airline is cached for the GET, its ETag is sent in If-None-Match
+     * */
+    private CompletableFuture<Airline> getAsync(Map<String, String> params) {
+        StringJoiner query = new StringJoiner("&", "?", "");
+        params.forEach((key, value) -> query.add(URLEncoder.encode(key, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8)));
+        String type = responseType;
+        String key = type + " " + url + query;
+        CachedAirline cached = cache.get(key);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url + query))
+                .header("Accept", type)
+                .header("Accept-Encoding", AirlineServlet.GZIP + ", " + AirlineServlet.DEFLATE);
+        if(cached != null) request.header("If-None-Match", cached.tag);
+        return asyncClient().sendAsync(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> readAirline(response, key, cached), parsers);
+    }
 
+    /**
+     * @return the cached airline when the servlet answers 304 Not Modified, otherwise the airline
+     * of the response, which is cached when the response has an ETag
+     * */
+    private Airline readAirline(HttpResponse<InputStream> response, String key, CachedAirline cached) {
+        if(response.statusCode() == HTTP_NOT_MODIFIED && cached != null){
+            try(InputStream body = response.body()){
+                return cached.airline;
+            }catch(IOException e){
+                throw new CompletionException(e);
+            }
+        }
+        Airline airline = parseAirline(response);
+        Optional<String> tag = response.headers().firstValue("ETag");
+        if(tag.isPresent()) cache.put(key, new CachedAirline(tag.get(), airline));
+        else cache.remove(key);
+        return airline;
+    }
+
+    private Airline parseAirline(HttpResponse<InputStream> response) {
+        try(InputStream raw = response.body(); InputStream body = decoded(raw, response)){
+            if(response.statusCode() != HTTP_OK){
+                throw new RestException(response.statusCode(), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            Airline airline;
+            if(isMediaType(contentType, AirlineServlet.JSON_TYPE)){
+                airline = new JsonParser(readerOf(body, contentType, StandardCharsets.UTF_8)).parse();
+            }else if(isMediaType(contentType, AirlineServlet.TEXT_TYPE)){
+                airline = new TextParser(readerOf(body, contentType, StandardCharsets.UTF_8)).parse();
+            }else{
+                airline = new StreamingXmlParser(readerOf(body, contentType, StandardCharsets.US_ASCII)).parse();
+            }
+            if(airline==null) throw new ParserException("Flight information in the response is invalid.");
+            return airline;
+        }catch(IOException | ParserException e){
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * @return the body of the response, decompressed as it is read when it has a gzip or deflate content encoding
+     * */
+    private static InputStream decoded(InputStream body, HttpResponse<?> response) throws IOException {
+        String coding = response.headers().firstValue("Content-Encoding").orElse("").trim();
+        if(coding.equalsIgnoreCase(AirlineServlet.GZIP)) return new GZIPInputStream(body, 8192);
+        if(coding.equalsIgnoreCase(AirlineServlet.DEFLATE)) return new InflaterInputStream(body);
+        return body;
+    }
+
+    /**
+     * @return true if the content type is the given media type, with or without parameters
+     * */
+    private static boolean isMediaType(String contentType, String mediaType) {
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim();
+        return type.equalsIgnoreCase(mediaType);
+    }
+
+    /**
+     * @param fallback charset of the body when the content type has none, such as US-ASCII as written by {@link StreamingXmlDumper}
+     * @return buffered reader of the body in the charset of its content type
+     * */
+    private static Reader readerOf(InputStream body, String contentType, Charset fallback) {
+        return new BufferedReader(new InputStreamReader(body, charsetOf(contentType, fallback)));
+    }
+
+    private static Charset charsetOf(String contentType, Charset fallback) {
+        int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if(at < 0) return fallback;
+        try{
+            return Charset.forName(contentType.substring(at + "charset=".length()).split(";")[0].trim());
+        }catch(IllegalArgumentException e){
+            return fallback;
+        }
+    }
+
+    /**
+     * @return the pooled client, created on its first call. HTTP/1.1 keeps the
+     * requests on plain persistent connections, which the client reuses while they are idle
+     * */
+    private synchronized HttpClient asyncClient() {
+        if(parsers == null){
+            parsers = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "airline-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if(async == null){
+            async = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .executor(parsers)
+                    .build();
+        }
+        return async;
+    }
+
+    /**
+     * getAirline() method
+     * Errors are printed, the servlet's message when it does not answer with 200
+     * @return Airline object retrieved from the Http Response, null if it could not be retrieved
+     * */
+    public Airline getAirline(String airlineName, String src, String dest) {
+        try{
+            return join(getAirlineAsync(airlineName, src, dest));
+        }catch(RestException e){
+            System.out.println(e.getMessage());
         }catch(IOException e){
             System.err.println("IOException thrown when getting data from response output: "
                     + e.getMessage());
         }catch(ParserException e){
-            System.out.println(response.getContent());
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Gets a single page of the flights of an airline
+     * @param src departure airport code, null for every route
+     * @param dest arrival airport code, null for every route
+     * @param limit largest number of flights in the page
+     * @param cursor where the previous page ended, null for the first page
+     * @return Airline with the flights of the page, without any flights when there are none after the cursor
+     * @throws RestException if the servlet does not answer with 200, e.g. 404 when the airline or route has no flights
+     * */
+    public Airline getAirlinePage(String airlineName, String src, String dest, int limit, String cursor) throws IOException, ParserException {
+        return join(getAirlinePageAsync(airlineName, src, dest, limit, cursor));
+    }
+
+    /**
+     * Gets the flights of an airline from a departure airport that depart within a time range
+     * @param src departure airport code
+     * @param dest arrival airport code, null for every arrival airport
+     * @param departAfter earliest departure, inclusive, in MM/DD/YYYY HH:MM AM|PM format, null for no lower bound
+     * @param departBefore latest departure, exclusive, in MM/DD/YYYY HH:MM AM|PM format, null for no upper bound
+     * @return Airline with the flights in the range, in sorted order
+     * @throws RestException if the servlet does not answer with 200, e.g. 404 when no flights are in the range
+     * */
+    public Airline getAirlineDepartingBetween(String airlineName, String src, String dest,
+                                              String departAfter, String departBefore) throws IOException, ParserException {
+        return join(getAirlineDepartingBetweenAsync(airlineName, src, dest, departAfter, departBefore));
+    }
+
+    /**
+     * Gets the flights of an airline that depart within a time range without blocking,
+     * see {@link #getAirlineDepartingBetween(String, String, String, String, String)}
+     * @return future completed with the airline of the flights in the range, or completed exceptionally
+     * as by {@link #getAirlineAsync(String, String, String)}
+     * */
+    public CompletableFuture<Airline> getAirlineDepartingBetweenAsync(String airlineName, String src, String dest,
+                                                                      String departAfter, String departBefore) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(AirlineServlet.AIRLINE_NAME_PARAM, airlineName);
+        params.put(AirlineServlet.SOURCE_PARAM, src);
+        if(dest!=null) params.put(AirlineServlet.DESTINATION_PARAM, dest);
+        if(departAfter!=null) params.put(AirlineServlet.DEPART_AFTER_PARAM, departAfter);
+        if(departBefore!=null) params.put(AirlineServlet.DEPART_BEFORE_PARAM, departBefore);
+        return getAsync(params);
+    }
+
+    /**
+     * Waits for a GET and throws what it failed with
+     * @throws RestException if the servlet did not answer with 200
+     * @throws ParserException if the answer is not a valid airline document
+     * @throws IOException if the request could not be sent or its answer read
+     * */
+    private static Airline join(CompletableFuture<Airline> get) throws IOException, ParserException {
+        try{
+            return get.join();
+        }catch(CompletionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            if(cause instanceof ParserException) throw (ParserException) cause;
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw e;
         }
-        return found;
+    }
+
+    /**
+     * Iterates the flights of an airline in sorted order, requesting them a page at a time,
+     * so only a single page of flights is held in memory.
+     * The cursor of each page is computed from the page before it, see {@link FlightCursor}
+     * @param src departure airport code, null for every route
+     * @param dest arrival airport code, null for every route
+     * @param pageSize number of flights requested at a time
+     * @return flights of the airline, a page is requested when the iteration reaches it
+     * */
+    public Iterable<Flight> getFlights(String airlineName, String src, String dest, int pageSize) {
+        if(pageSize<=0) throw new IllegalArgumentException("Page size must be greater than zero: " + pageSize);
+        return () -> new Iterator<Flight>() {
+            private FlightCursor cursor;
+            private Iterator<Flight> page = Collections.emptyIterator();
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                if(!page.hasNext() && !lastPage) nextPage();
+                return page.hasNext();
+            }
+
+            @Override
+            public Flight next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                return page.next();
+            }
+
+            private void nextPage() {
+                List<Flight> flights;
+                try{
+                    flights = getAirlinePage(airlineName, src, dest, pageSize,
+                            cursor==null ? null : cursor.toString()).getFlights();
+                }catch(IOException | ParserException e){
+                    throw new RuntimeException("Could not get the flights of " + airlineName + ": " + e.getMessage(), e);
+                }
+                lastPage = flights.size() < pageSize;
+                if(!flights.isEmpty()) cursor = FlightCursor.after(cursor, flights);
+                page = flights.iterator();
+            }
+        };
     }
 
     /**
@@ -92,9 +407,65 @@ public class AirlineRestClient
         //System.out.println(response.getContent());
     }
 
+    /**
+     * Adds many flights to an airline with one POST per batch instead of one per flight.
+     * Each batch is sent as the text body written by {@link TextDumper} and is added
+     * by the servlet whole or not at all
+     * @param flights flights to be added
+     * @param batchSize largest number of flights sent in one request
+     * @return number of flights added
+     * @throws RestException if the servlet does not answer a batch with 201, the batches before it were added
+     * */
+    public int addFlightsToAirline(String airlineName, List<Flight> flights, int batchSize) throws IOException {
+        if(batchSize<=0) throw new IllegalArgumentException("Batch size must be greater than zero: " + batchSize);
+        int added = 0;
+        for(int from=0; from<flights.size(); from+=batchSize){
+            List<Flight> batch = flights.subList(from, Math.min(flights.size(), from + batchSize));
+            Properties summary = new Properties();
+            summary.load(new StringReader(postBatch(airlineName, batch)));
+            added += Integer.parseInt(summary.getProperty(AirlineServlet.BATCH_ADDED, "0"));
+        }
+        return added;
+    }
+
+    /**
+     * Adds many flights to an airline, {@value #DEFAULT_BATCH_SIZE} flights per request
+     * @see #addFlightsToAirline(String, List, int)
+     * */
+    public int addFlightsToAirline(String airlineName, List<Flight> flights) throws IOException {
+        return addFlightsToAirline(airlineName, flights, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Posts a batch of flights on the pooled client, so the batches share its kept-alive connections.
+     * The body is written by {@link TextDumper} into a buffer of the batch, which the batch size bounds
+     * @return the summary the servlet answered with
+     * */
+    private String postBatch(String airlineName, List<Flight> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(Writer body = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))){
+            new TextDumper(body).dump(airlineName, batch);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "?" + AirlineServlet.AIRLINE_NAME_PARAM + "="
+                        + URLEncoder.encode(airlineName, StandardCharsets.UTF_8)))
+                .header("Content-Type", AirlineServlet.TEXT_TYPE + ";charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray()))
+                .build();
+        HttpResponse<String> response;
+        try{
+            response = asyncClient().send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while posting flights to " + airlineName);
+        }
+        if(response.statusCode() != HttpURLConnection.HTTP_CREATED) throw new RestException(response.statusCode(), response.body());
+        return response.body();
+    }
+
     public void removeAllAirlines() throws IOException {
         Response response = http.delete(Map.of());
         throwExceptionIfNotOkayHttpStatus(response);
+        cache.clear();
     }
 
     private void throwExceptionIfNotOkayHttpStatus(Response response) {
@@ -105,4 +476,17 @@ public class AirlineRestClient
         }
     }
 
+    /**
+     * Airline answered to a GET, and the ETag it was answered with
+     * */
+    private static final class CachedAirline {
+        private final String tag;
+        private final Airline airline;
+
+        CachedAirline(String tag, Airline airline) {
+            this.tag = tag;
+            this.airline = airline;
+        }
+    }
+
 }
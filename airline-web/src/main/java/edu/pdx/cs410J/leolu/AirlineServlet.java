@@ -1,40 +1,128 @@
 package edu.pdx.cs410J.leolu;
 
 import com.google.common.annotations.VisibleForTesting;
-import edu.pdx.cs410J.AirportNames;
+import edu.pdx.cs410J.ParserException;
 
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This servlet ultimately provides a REST API for working with an
  * <code>Airline</code>.  However, in its current state, it is an example
  * of how to use HTTP and Java servlets to store simple dictionary of words
  * and their definitions.
+ *
+ * Airlines are only kept in memory unless a data directory is set with the
+ * <code>dataDirectory</code> init parameter or the <code>airline.data.dir</code>
+ * system property, then they are stored durably by {@link AirlineRepository#durable(File)}
+ * and recovered when the servlet is started again.
+ * Airlines store their flights in primitive columns, see {@link FlightColumns}, when the
+ * <code>columnarFlights</code> init parameter or the <code>airline.columnar</code> system property is true,
+ * and off the heap, as records in direct memory, when the <code>offHeapFlights</code> init parameter
+ * or the <code>airline.offheap</code> system property is true.
  */
 public class AirlineServlet extends HttpServlet {
 
-    private final SimpleDateFormat formatter = new SimpleDateFormat("MM/dd/yyyy h:mm a");
     static final String AIRLINE_NAME_PARAM = "airline", SOURCE_PARAM = "src" , DESTINATION_PARAM = "dest",
-            FLIGHT_NUMBER_PARAM = "flightNumber", DEPARTURE_DATETIME = "depart", ARRIVAL_DATETIME = "arrive";
-
-
-    // K,V : airlineName , Airline Object
-    private final Map<String, Airline> airlines = new HashMap<>();
+            FLIGHT_NUMBER_PARAM = "flightNumber", DEPARTURE_DATETIME = "depart", ARRIVAL_DATETIME = "arrive",
+            LIMIT_PARAM = "limit", CURSOR_PARAM = "cursor",
+            DEPART_AFTER_PARAM = "departAfter", DEPART_BEFORE_PARAM = "departBefore";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String XML_TYPE = "application/xml", TEXT_TYPE = "text/plain", JSON_TYPE = "application/json";
+    // types of a GET response, in order of preference when the Accept header ranks them the same
+    private static final String[] RESPONSE_TYPES = {XML_TYPE, JSON_TYPE, TEXT_TYPE};
+    static final String GZIP = "gzip", DEFLATE = "deflate", IDENTITY = "identity";
+    private static final String VARY = "Accept, Accept-Encoding";
+    private static final int COMPRESSION_BUFFER = 8192;
+    static final String BATCH_ADDED = "added", BATCH_FLIGHTS = "flights";
+
+
+    static final String DATA_DIRECTORY_PARAM = "dataDirectory", DATA_DIRECTORY_PROPERTY = "airline.data.dir";
+    static final String COLUMNAR_PARAM = "columnarFlights", COLUMNAR_PROPERTY = "airline.columnar";
+    static final String OFF_HEAP_PARAM = "offHeapFlights", OFF_HEAP_PROPERTY = "airline.offheap";
+
+    private AirlineRepository airlines = new AirlineRepository();
     protected String errorMsgForTesting="";
     protected int codesCaught = 0;
 
+    /**
+     * Recovers the airlines from the data directory, when one is set
+     * */
+    @Override
+    public void init() throws ServletException {
+        Airline.FlightStorage flightStorage = Airline.FlightStorage.OBJECTS;
+        if(isEnabled(COLUMNAR_PARAM, COLUMNAR_PROPERTY)) flightStorage = Airline.FlightStorage.COLUMNS;
+        if(isEnabled(OFF_HEAP_PARAM, OFF_HEAP_PROPERTY)) flightStorage = Airline.FlightStorage.OFF_HEAP;
+        String directory = getInitParameter(DATA_DIRECTORY_PARAM);
+        if(directory == null) directory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if(directory == null || directory.isEmpty()){
+            if(flightStorage != Airline.FlightStorage.OBJECTS) airlines = new AirlineRepository(flightStorage);
+            return;
+        }
+        try {
+            airlines = AirlineRepository.durable(new File(directory), flightStorage);
+        } catch (IOException e) {
+            throw new ServletException("Could not recover airlines from " + directory, e);
+        }
+    }
+
+    /**
+     * @return true if the init parameter, or the system property when the parameter is not set, is true
+     * */
+    private boolean isEnabled(String param, String property) {
+        String value = getInitParameter(param);
+        if(value == null) value = System.getProperty(property);
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Writes a final snapshot of a durable repository so the next start is fast
+     * */
+    @Override
+    public void destroy() {
+        try {
+            airlines.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the airline journal: " + e.getMessage());
+        }
+    }
+
     /**
      * Handles an HTTP GET request from a client by writing the definition of the
      * word specified in the "word" HTTP parameter to the HTTP response.  If the
      * "word" parameter is not specified, all of the entries in the dictionary
      * are written to the HTTP response.
+     *
+     * The flights can be read a page at a time with the "limit" parameter, the page size,
+     * and the "cursor" parameter, where the previous page ended. When more flights follow
+     * a page, the cursor of the next page is sent in the {@value #NEXT_CURSOR_HEADER} header,
+     * see {@link FlightCursor}.
+     *
+     * Flights from a "src" airport, and optionally to a "dest" airport, can be searched by
+     * departure time with "departAfter", inclusive, and "departBefore", exclusive,
+     * both in the MM/DD/YYYY HH:MM AM|PM format of the "depart" parameter.
+     *
+     * The flights are written as the airline XML document, as compact JSON or as the
+     * one line per flight text of {@link TextDumper}, whichever the Accept header of the
+     * request prefers, see {@link #responseType(String)}, and compressed with gzip or deflate
+     * when the Accept-Encoding header of the request allows it, see {@link #contentCoding(String)}.
+     *
+     * The flights are sent with an ETag of the version of the airline, see {@link #entityTag(Airline, String)},
+     * and a request whose If-None-Match header has the current tag is answered with 304 Not Modified
+     * without reading or writing the flights.
      */
     @Override
     protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException
@@ -45,6 +133,11 @@ public class AirlineServlet extends HttpServlet {
         String airlineName = request.getParameter(AIRLINE_NAME_PARAM);
         String src = request.getParameter(SOURCE_PARAM);
         String dest = request.getParameter(DESTINATION_PARAM);
+        String limit = request.getParameter(LIMIT_PARAM);
+        String cursor = request.getParameter(CURSOR_PARAM);
+        String departAfter = request.getParameter(DEPART_AFTER_PARAM);
+        String departBefore = request.getParameter(DEPART_BEFORE_PARAM);
+        boolean departureRange = isSpecified(departAfter) || isSpecified(departBefore);
         if(queryString == null || (queryString!=null&&queryString.length()==0)){
             response.sendError(HttpServletResponse.SC_PRECONDITION_FAILED,"HTTP 412 | Query String was empty." );
             return;
@@ -54,48 +147,316 @@ public class AirlineServlet extends HttpServlet {
         //if(!checkQueryStringForExtraneousParams(request,response,"get"))return;
         goodRequest &= validateParam(response, queryString, airlineName, AIRLINE_NAME_PARAM);
         //if (!validateParam(response, queryString, airlineName, AIRLINE_NAME_PARAM)) return;
+        goodRequest &= validatePage(response, limit, cursor);
+        goodRequest &= validateDepartureRange(response, departAfter, departBefore);
 
-        if(!airlines.containsKey(airlineName)){
+        Airline airline = airlines.get(airlineName);
+        if(airline == null){
             responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_NOT_FOUND,"Airline name " +
                     "was not found: " + airlineName );
             goodRequest = false;
         }
-        if(src!=null || dest!=null){
+        if(departureRange){
+            goodRequest &= validateDepartureSource(response, queryString, src, dest);
+        }else if(src!=null || dest!=null){
             goodRequest &= validateSRCAndDEST(response, queryString, src, dest);
-            if(!goodRequest){
-                isBadRequest(response);
-                return;
-            }
-            getFlightsWithSpecificSRCAndDest(response,queryString,airlineName,src.toUpperCase(),dest.toUpperCase());
+        }
+        if(!goodRequest){
+            isBadRequest(response);
+            return;
+        }
+
+        //the tag is read before the flights, so a flight added meanwhile can only make the tag older than the flights
+        String tag = entityTag(airline, responseType(request.getHeader("Accept")));
+        if(isNotModified(request, response, tag)) return;
+        if(departureRange){
+            getFlightsDepartingBetween(response,airline,src.toUpperCase(),dest==null ? null : dest.toUpperCase(),
+                    departAfter,departBefore,limit,cursor,request,tag);
+        }else if(src!=null || dest!=null){
+            getFlightsWithSpecificSRCAndDest(response,queryString,airline,src.toUpperCase(),dest.toUpperCase(),limit,cursor,request,tag);
         }else{
             //When SRC & DEST not specified, get all flights from airline:
-            if(!goodRequest){
-                isBadRequest(response);
-                return;
-            }
-            writeAirlineAndFlightsToResponse(response,airlines.get(airlineName),HttpServletResponse.SC_OK);
+            writePageToResponse(response,airline.getName(),airline.getFlights(),limit,cursor,request,tag);
         }
 
     }
 
     /**
      * Invoked when the GET requests is for specific SRC and DEST codes
+     * Matching flights come from the airline's route index, already sorted
      * */
-    private void getFlightsWithSpecificSRCAndDest(HttpServletResponse response, String queryString, String airlineName, String src, String dest) throws IOException {
-        Airline requestedAirline = airlines.get(airlineName);
-        Airline filteredAirlineWithMatchingFlights = new Airline(airlineName);
-        for(Flight fl: requestedAirline.getFlights()){
-            if(fl.getSource().equals(src)&& fl.getDestination().equals(dest))
-                filteredAirlineWithMatchingFlights.addFlight(fl);
-        }
-        if(filteredAirlineWithMatchingFlights.getFlights().isEmpty()){
+    private void getFlightsWithSpecificSRCAndDest(HttpServletResponse response, String queryString, Airline requestedAirline, String src, String dest,
+                                                  String limit, String cursor, HttpServletRequest request, String tag) throws IOException {
+        String airlineName = requestedAirline.getName();
+        List<Flight> matchingFlights = requestedAirline.getFlights(src, dest);
+        if(matchingFlights.isEmpty()){
             errorMsgForTesting += "HTTP 404 | Flights with departure airport " + src +
                     " and arrival airport " + dest +
                     " could not be found for " + airlineName +"\n";
             response.sendError(HttpServletResponse.SC_NOT_FOUND,errorMsgForTesting);
             return;
         }
-        writeAirlineAndFlightsToResponse(response,filteredAirlineWithMatchingFlights,HttpServletResponse.SC_OK);
+        writePageToResponse(response,airlineName,matchingFlights,limit,cursor,request,tag);
+    }
+
+    /**
+     * Invoked when the GET request has a departure time range
+     * Matching flights are a view of the airline's sorted flights, see {@link Airline#getFlightsDeparting}
+     * */
+    private void getFlightsDepartingBetween(HttpServletResponse response, Airline requestedAirline, String src, String dest,
+                                            String departAfter, String departBefore, String limit, String cursor,
+                                            HttpServletRequest request, String tag) throws IOException {
+        String airlineName = requestedAirline.getName();
+        List<Flight> matchingFlights = requestedAirline.getFlightsDeparting(src, dest,
+                isSpecified(departAfter) ? Flight.parseDateTime12(departAfter) : null,
+                isSpecified(departBefore) ? Flight.parseDateTime12(departBefore) : null);
+        if(matchingFlights.isEmpty()){
+            errorMsgForTesting += "HTTP 404 | Flights with departure airport " + src +
+                    (dest==null ? "" : " and arrival airport " + dest) +
+                    (isSpecified(departAfter) ? " departing at or after " + departAfter : "") +
+                    (isSpecified(departBefore) ? " departing before " + departBefore : "") +
+                    " could not be found for " + airlineName +"\n";
+            response.sendError(HttpServletResponse.SC_NOT_FOUND,errorMsgForTesting);
+            return;
+        }
+        writePageToResponse(response,airlineName,matchingFlights,limit,cursor,request,tag);
+    }
+
+    /**
+     * Checks the format of the departure time range of a GET request, either end can be left out
+     * */
+    private boolean validateDepartureRange(HttpServletResponse response, String departAfter, String departBefore) throws IOException {
+        boolean state = true;
+        for(String param: new String[]{departAfter, departBefore}){
+            if(isSpecified(param) && !FlightValidator.isValidDateTime12(param)){
+                responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,"\""+ param +"\""+
+                        " is not a correctly formatted datetime: MM/DD/YYYY HH:MM AM|PM \n" +
+                        "Please note only a single space is needed to separate MM/DD/YYYY, HH:MM, and AM|PM !");
+                state = false;
+            }
+        }
+        if(state && isSpecified(departAfter) && isSpecified(departBefore)
+                && !Flight.parseDateTime12(departAfter).isBefore(Flight.parseDateTime12(departBefore))){
+            responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
+                    "departAfter " + departAfter + " must be earlier than departBefore " + departBefore);
+            state = false;
+        }
+        return state;
+    }
+
+    /**
+     * A departure time range is searched in the flights of a single departure airport,
+     * so "src" is required and "dest" is optional
+     * */
+    private boolean validateDepartureSource(HttpServletResponse response, String queryString, String src, String dest) throws IOException {
+        if(dest!=null) return validateSRCAndDEST(response, queryString, src, dest);
+        if(!isSpecified(src)){
+            responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_PRECONDITION_FAILED,"Query string \"departAfter\" or " +
+                    "\"departBefore\" is defined, but \"src\" was not defined! : " + queryString);
+            return false;
+        }
+        if(!isRealAirportCode(src)){
+            responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
+                    "Departure airport code is invalid, src: " + src);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isSpecified(String param) {
+        return param!=null && param.length()!=0;
+    }
+
+    /**
+     * Checks the page size and cursor of a GET request, either can be left out
+     * */
+    private boolean validatePage(HttpServletResponse response, String limit, String cursor) throws IOException {
+        boolean state = true;
+        if(limit!=null && limit.length()!=0){
+            try{
+                if(Integer.parseInt(limit)<=0) throw new NumberFormatException();
+            }catch(NumberFormatException e){
+                responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,"\""+limit +"\""+
+                        " is not a positive integer, and cannot be set as page limit.");
+                state = false;
+            }
+        }
+        if(cursor!=null && cursor.length()!=0){
+            try{
+                FlightCursor.parse(cursor);
+            }catch(IllegalArgumentException e){
+                responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,e.getMessage());
+                state = false;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Writes the flights after the cursor, at most limit of them
+     * The page is a view of the sorted flights, found by a binary search for the cursor,
+     * so no flights are copied. When flights remain after the page,
+     * the cursor of the next page is set in a header before the body is written
+     * @param flights flights sorted by {@link Flight#compareTo(Flight)}
+     * @param limit page size, all the flights after the cursor when null or empty
+     * @param cursor where the previous page ended, the first flight when null or empty
+     * @param request request whose Accept and Accept-Encoding headers choose the format of the page
+     * @param tag entity tag of the flights, see {@link #entityTag(Airline, String)}
+     * */
+    private void writePageToResponse(HttpServletResponse response, String airlineName, List<Flight> flights,
+                                     String limit, String cursor, HttpServletRequest request, String tag) throws IOException {
+        FlightCursor after = cursor==null || cursor.length()==0 ? null : FlightCursor.parse(cursor);
+        int start = after==null ? 0 : after.startIndex(flights);
+        int end = flights.size();
+        if(limit!=null && limit.length()!=0) end = (int) Math.min(end, (long) start + Integer.parseInt(limit));
+        List<Flight> page = flights.subList(start, end);
+        if(end < flights.size()) response.setHeader(NEXT_CURSOR_HEADER, FlightCursor.after(after, page).toString());
+        writeFlightsToResponse(response,airlineName,page,HttpServletResponse.SC_OK,
+                responseType(request.getHeader("Accept")),contentCoding(request.getHeader("Accept-Encoding")),tag);
+    }
+
+    /**
+     * The tag is weak, as the flights are the same whichever content coding they are sent with,
+     * and has the media type, as they are not the same document in another type
+     * @param type media type of the response, see {@link #responseType(String)}
+     * @return entity tag of the current version of the airline, see {@link Airline#getVersion()}
+     * */
+    static String entityTag(Airline airline, String type) {
+        return "W/\"" + Long.toHexString(airline.getInstanceId()) + "-" + airline.getVersion()
+                + "-" + type.substring(type.indexOf('/') + 1) + "\"";
+    }
+
+    /**
+     * Answers 304 Not Modified, without a body, when the If-None-Match header of the request has the tag
+     * @return true if the response was answered
+     * */
+    private boolean isNotModified(HttpServletRequest request, HttpServletResponse response, String tag) {
+        if(!matchesEntityTag(request.getHeader("If-None-Match"), tag)) return false;
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader("ETag", tag);
+        response.setHeader("Vary", VARY);
+        return true;
+    }
+
+    /**
+     * Compares the tags of an If-None-Match header with the weak comparison, where a weak and a
+     * strong tag with the same value match
+     * @param ifNoneMatch If-None-Match header of the request, a list of tags or <code>*</code>
+     * @return true if any of the tags is the given tag
+     * */
+    static boolean matchesEntityTag(String ifNoneMatch, String tag) {
+        if(ifNoneMatch == null) return false;
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        for(String candidate: ifNoneMatch.split(",")){
+            candidate = candidate.trim();
+            if(candidate.equals("*")) return true;
+            if(candidate.startsWith("W/")) candidate = candidate.substring(2);
+            if(candidate.equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Chooses the type of a GET response from the Accept header of the request.
+     * Each of {@value #XML_TYPE}, {@value #JSON_TYPE} and {@value #TEXT_TYPE} gets the quality
+     * of the most specific media range that matches it, and the type with the highest quality wins.
+     * A type named by the client wins over one only matched by a wildcard of the same quality,
+     * so <code>application/json, *&#47;*</code> is answered with JSON.
+     * @param accept Accept header of the request
+     * @return the media type of the response, the XML document when the header is missing
+     * or accepts none of the types
+     * */
+    static String responseType(String accept) {
+        if(accept == null || accept.isBlank()) return XML_TYPE;
+        String[] ranges = accept.split(",");
+        String best = XML_TYPE;
+        double bestQuality = 0;
+        int bestSpecificity = -1;
+        for(String type: RESPONSE_TYPES){
+            double quality = 0;
+            int specificity = -1;
+            for(String range: ranges){
+                String[] parts = range.split(";");
+                int matched = specificity(parts[0].trim().toLowerCase(Locale.ROOT), type);
+                if(matched > specificity){
+                    specificity = matched;
+                    quality = qualityOf(parts);
+                }
+            }
+            if(quality > bestQuality || (quality == bestQuality && quality > 0 && specificity > bestSpecificity)){
+                best = type;
+                bestQuality = quality;
+                bestSpecificity = specificity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return 2 if the media range is the type itself, 1 if it is the wildcard of its top level type,
+     * 0 if it is <code>*&#47;*</code> and -1 if it does not match the type
+     * */
+    private static int specificity(String range, String type) {
+        if(range.equals(type)) return 2;
+        if(range.equals(type.substring(0, type.indexOf('/')) + "/*")) return 1;
+        return range.equals("*/*") ? 0 : -1;
+    }
+
+    /**
+     * @param parts media range and its parameters
+     * @return the q parameter of the media range, 1 when it has none, 0 when it is not a number
+     * */
+    private static double qualityOf(String[] parts) {
+        for(int i = 1; i < parts.length; i++){
+            String parameter = parts[i].trim();
+            if(!parameter.startsWith("q=")) continue;
+            try {
+                return Math.min(1, Double.parseDouble(parameter.substring(2)));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Chooses the compression of a GET response from the Accept-Encoding header of the request.
+     * {@value #GZIP} is preferred to {@value #DEFLATE} when the header ranks them the same, and
+     * either is only used when its quality is at least that of {@value #IDENTITY}, the
+     * uncompressed body, which is acceptable unless the header gives it a quality of 0
+     * @param acceptEncoding Accept-Encoding header of the request
+     * @return {@value #GZIP}, {@value #DEFLATE}, or null to send the body uncompressed
+     * */
+    static String contentCoding(String acceptEncoding) {
+        if(acceptEncoding == null || acceptEncoding.isBlank()) return null;
+        String[] codings = acceptEncoding.split(",");
+        double identity = qualityOf(codings, IDENTITY, 1);
+        String best = null;
+        double bestQuality = 0;
+        for(String coding: new String[]{GZIP, DEFLATE}){
+            double quality = qualityOf(codings, coding, 0);
+            if(quality > bestQuality && quality >= identity){
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param codings the codings of an Accept-Encoding header, with their parameters
+     * @param fallback quality of the coding when neither it nor <code>*</code> is listed
+     * @return quality of the coding, from its own entry or else from the <code>*</code> entry
+     * */
+    private static double qualityOf(String[] codings, String coding, double fallback) {
+        double wildcard = -1;
+        for(String entry: codings){
+            String[] parts = entry.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if(name.equals(coding) || (coding.equals(GZIP) && name.equals("x-gzip"))) return qualityOf(parts);
+            if(name.equals("*")) wildcard = qualityOf(parts);
+        }
+        return wildcard < 0 ? fallback : wildcard;
     }
 
     /**
@@ -120,12 +481,12 @@ public class AirlineServlet extends HttpServlet {
             state = false;
         }
 
-        if(src!=null&&src.length()!=0 && !isRealAirportCode(src.toUpperCase())){
+        if(src!=null&&src.length()!=0 && !isRealAirportCode(src)){
             responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
                     "Departure airport code is invalid, src: " + src);
             state = false;
         }
-        if(dest!=null &&dest.length()!=0 && !isRealAirportCode(dest.toUpperCase())){
+        if(dest!=null &&dest.length()!=0 && !isRealAirportCode(dest)){
             responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
                     "Arrival airport code is invalid, dest: " + dest);
             state = false;
@@ -135,27 +496,72 @@ public class AirlineServlet extends HttpServlet {
 
     /**
      * Invoked when request is valid
-     * Writes requested airline and flight(s) info to response in XML format using XmlDumper
+     * Writes requested airline and flight(s) info to response in XML format using StreamingXmlDumper
      * */
     protected void writeAirlineAndFlightsToResponse(HttpServletResponse response, Airline airline, int status) throws IOException {
-        response.setContentType("application/xml;charset=us-ascii");
-        PrintWriter pw = response.getWriter();
-        XmlDumper dumper = new XmlDumper(pw);
-        dumper.dump(airline);
+        writeFlightsToResponse(response, airline.getName(), airline.getFlights(), status, XML_TYPE, null, null);
+    }
 
+    /**
+     * Streams the airline document to the response as it is written.
+     * No content length is set, so the container sends the body chunked: the header is
+     * flushed as soon as the airline name is written and the flights follow a buffer at a time,
+     * the memory of a request does not grow with the number of flights.
+     * The status and content type are set first, they can not be changed once the response is committed
+     *
+     * A compressed body is written through a gzip or deflate stream over the response's output
+     * stream, flushed along with the dumper, so it is compressed a buffer at a time as it is sent
+     * @param type {@value #XML_TYPE}, {@value #JSON_TYPE} or {@value #TEXT_TYPE}
+     * @param coding {@value #GZIP}, {@value #DEFLATE}, or null for an uncompressed body
+     * @param tag entity tag of the flights, null for none
+     * */
+    private void writeFlightsToResponse(HttpServletResponse response, String airlineName, Collection<Flight> flights,
+                                        int status, String type, String coding, String tag) throws IOException {
+        Charset charset = type.equals(XML_TYPE) ? StandardCharsets.US_ASCII : StandardCharsets.UTF_8;
         response.setStatus(status);
+        response.setHeader("Vary", VARY);
+        if(tag != null) response.setHeader("ETag", tag);
+        response.setContentType(type + ";charset=" + charset.name().toLowerCase(Locale.ROOT));
+        if(coding == null){
+            dump(response.getWriter(), type, airlineName, flights);
+            return;
+        }
+        response.setHeader("Content-Encoding", coding);
+        DeflaterOutputStream compressed = coding.equals(GZIP)
+                ? new GZIPOutputStream(response.getOutputStream(), COMPRESSION_BUFFER, true)
+                : new DeflaterOutputStream(response.getOutputStream(), true);
+        try(Writer writer = new BufferedWriter(new OutputStreamWriter(compressed, charset), COMPRESSION_BUFFER)){
+            dump(writer, type, airlineName, flights);
+        }
+    }
+
+    /**
+     * Writes the flights with the dumper of the media type
+     * */
+    private static void dump(Writer writer, String type, String airlineName, Collection<Flight> flights) {
+        switch (type) {
+            case JSON_TYPE:
+                new JsonDumper(writer).dump(airlineName, flights);
+                break;
+            case TEXT_TYPE:
+                new TextDumper(writer).dump(airlineName, flights);
+                break;
+            default:
+                new StreamingXmlDumper(writer).dump(airlineName, flights);
+                break;
+        }
     }
 
     protected void addNewAirlineToMap(String airlineName){
-        airlines.put(airlineName,new Airline(airlineName));
+        airlines.put(airlines.newAirline(airlineName));
     }
-    protected void addAirlineToMap(Airline airline){airlines.put(airline.getName(),airline);}
+    protected void addAirlineToMap(Airline airline){airlines.put(airline);}
 
     /**
-     * Checks if the provided SRC or DEST airport codes are real airport codes
+     * Checks if the provided SRC or DEST airport codes are real airport codes, in any case
      * */
     private boolean isRealAirportCode(String code) {
-        return AirportNames.getNamesMap().containsKey(code);
+        return AirportCodes.isReal(code);
     }
     /**
      * Checks for extraneous parameter values in the request
@@ -166,7 +572,9 @@ public class AirlineServlet extends HttpServlet {
         Iterator<String> iterate = paramMap.keySet().iterator();
         while(iterate.hasNext()){
             String key = iterate.next();
-            if(type.equals("get")&&!key.equals(AIRLINE_NAME_PARAM)&&!key.equals(SOURCE_PARAM)&&!key.equals(DESTINATION_PARAM)){
+            if(type.equals("get")&&!key.equals(AIRLINE_NAME_PARAM)&&!key.equals(SOURCE_PARAM)&&!key.equals(DESTINATION_PARAM)
+                    &&!key.equals(LIMIT_PARAM)&&!key.equals(CURSOR_PARAM)
+                    &&!key.equals(DEPART_AFTER_PARAM)&&!key.equals(DEPART_BEFORE_PARAM)){
                 responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
                         "In search GET request, extraneous parameter was found in query string: " + key);
                 state = false;
@@ -177,6 +585,11 @@ public class AirlineServlet extends HttpServlet {
                         "In add POST request, extraneous parameter was found in query string: " + key);
                 state = false;
             }
+            if(type.equals("batch")&&!key.equals(AIRLINE_NAME_PARAM)){
+                responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
+                        "In batch POST request, extraneous parameter was found in query string: " + key);
+                state = false;
+            }
         }
         return state;
     }
@@ -194,11 +607,19 @@ public class AirlineServlet extends HttpServlet {
      * Handles an HTTP POST request by checking each parameter value for validity
      * Creates a new flight along with a temporary airline if valid
      * Temporary airline is added to map if airline does not exist yet
+     *
+     * A POST with an {@value #XML_TYPE} or {@value #TEXT_TYPE} body adds a batch of flights instead,
+     * see {@link #addFlightsFromBody(HttpServletRequest, HttpServletResponse, String)}
      */
     @Override
     protected void doPost( HttpServletRequest request, HttpServletResponse response ) throws IOException
     {
         errorMsgForTesting="";
+        String contentType = request.getContentType();
+        if(isBatchType(contentType, XML_TYPE) || isBatchType(contentType, TEXT_TYPE)){
+            addFlightsFromBody(request, response, contentType);
+            return;
+        }
         boolean goodRequest = true;
         String queryString = request.getQueryString();// Use to decide what kind of request it is for
         /*
@@ -239,11 +660,79 @@ public class AirlineServlet extends HttpServlet {
         Flight newFlight = new Flight(flightNumber,src.toUpperCase(),depDateTime[0],depDateTime[1]+" "+depDateTime[2],
                 dest.toUpperCase(),arrDateTime[0],arrDateTime[1]+" "+arrDateTime[2]);
 
+        airlines.addFlight(airlineName,newFlight);
         Airline responseAirline = new Airline(airlineName);
         responseAirline.addFlight(newFlight);
         writeAirlineAndFlightsToResponse(response,responseAirline ,HttpServletResponse.SC_CREATED);
-        if(airlines.containsKey(airlineName))airlines.get(airlineName).addFlight(newFlight);
-        else airlines.put(airlineName,responseAirline);
+    }
+
+    /**
+     * Adds every flight of the request body to an airline in one step.
+     * The body is an airline document, either XML as written by {@link StreamingXmlDumper}
+     * or text as written by {@link TextDumper}, and is parsed as it is read.
+     * Every flight is validated before any is added, so the batch is added whole or not at all,
+     * and the airline and a durable repository's log take it in a single sort and a single record.
+     * The optional "airline" parameter must match the airline name of the body.
+     *
+     * Instead of echoing the flights, the response is a short text summary:
+     * the airline name, the number of flights added and the number of flights the airline now has.
+     * */
+    private void addFlightsFromBody(HttpServletRequest request, HttpServletResponse response, String contentType) throws IOException {
+        boolean goodRequest = checkQueryStringForExtraneousParams(request,response,"batch");
+        String airlineName = request.getParameter(AIRLINE_NAME_PARAM);
+        if(!goodRequest){
+            isBadRequest(response);
+            return;
+        }
+
+        Airline batch;
+        String parseErrors;
+        try{
+            if(isBatchType(contentType, XML_TYPE)){
+                StreamingXmlParser parser = new StreamingXmlParser(request.getReader());
+                batch = parser.parse();
+                parseErrors = parser.getErrorMsg();
+            }else{
+                TextParser parser = new TextParser(request.getReader());
+                batch = parser.parse();
+                parseErrors = parser.getErrorMsg();
+            }
+        }catch(ParserException e){
+            batch = null;
+            parseErrors = e.getMessage();
+        }
+        if(batch == null){
+            responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,
+                    "No flights were added, the flights in the request body are invalid: \n" + parseErrors);
+            isBadRequest(response);
+            return;
+        }
+        if(airlineName != null && !airlineName.equals(batch.getName())){
+            responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,"Airline name " + airlineName +
+                    " of the query string does not match airline name " + batch.getName() + " of the request body");
+            isBadRequest(response);
+            return;
+        }
+
+        List<Flight> flights = batch.getFlights();
+        Airline stored = airlines.addFlights(batch.getName(), flights);
+        response.setStatus(HttpServletResponse.SC_CREATED);
+        response.setContentType("text/plain");
+        PrintWriter pw = response.getWriter();
+        pw.println(AIRLINE_NAME_PARAM + "=" + batch.getName());
+        pw.println(BATCH_ADDED + "=" + flights.size());
+        pw.println(BATCH_FLIGHTS + "=" + stored.getFlights().size());
+        pw.flush();
+    }
+
+    /**
+     * @return true if the content type of a request is the given media type, with or without parameters
+     * */
+    private static boolean isBatchType(String contentType, String mediaType) {
+        if(contentType == null) return false;
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim();
+        return type.equalsIgnoreCase(mediaType);
     }
 
     /**
@@ -279,9 +768,7 @@ public class AirlineServlet extends HttpServlet {
             return false;
         }
         if(paramType.equals(DEPARTURE_DATETIME) || paramType.equals(ARRIVAL_DATETIME)){
-            try{
-                formatter.parse(param);
-            }catch(ParseException e){
+            if(!FlightValidator.isValidDateTime12(param)){
                 responseSetStatusAndAddErrorMsg(response,HttpServletResponse.SC_BAD_REQUEST,"\""+ param +"\""+
                         " is not a correctly formatted datetime: MM/DD/YYYY HH:MM AM|PM \n" +
                         "Please note only a single space is needed to separate MM/DD/YYYY, HH:MM, and AM|PM !");
@@ -8,33 +8,36 @@
 package edu.pdx.cs410J.leolu;
 
 import edu.pdx.cs410J.AbstractFlight;
-import edu.pdx.cs410J.AirportNames;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.FormatStyle;
+import java.time.format.ResolverStyle;
 import java.util.Date;
 
 
 public class Flight extends AbstractFlight implements Comparable<Flight> {
-  private final SimpleDateFormat formatter = new SimpleDateFormat("MM/dd/yyyy h:mm a");
-  private final SimpleDateFormat formatter24 = new SimpleDateFormat("MM/dd/yyyy H:mm");
-  private final SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-  private final SimpleDateFormat timeFormat = new SimpleDateFormat("h:mm a");
-  private final SimpleDateFormat timeFormat24 = new SimpleDateFormat("H:mm");
+  // Formatters are immutable and thread-safe, so every flight shares them.
+  // Parsing is lenient like SimpleDateFormat, e.g. 02/30/2023 resolves to 03/02/2023
+  private static final DateTimeFormatter PARSE_12HR = lenientParser("M/d/yyyy h:mm a");
+  private static final DateTimeFormatter PARSE_24HR = lenientParser("M/d/yyyy H:mm");
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+  private static final DateTimeFormatter TIME_FORMAT_24 = DateTimeFormatter.ofPattern("H:mm");
+  private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
+  private static final DateTimeFormatter SHORT_FORMAT = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
   private int flightNumber;
   private int flightDuration;
   private boolean twelveHrFormat = true;
-  private String dep; //Departure Airport 3-letter Code
-  private String arr; //Arrival Airport 3-letter Code
-  private String depDate;
-  private String depTime;
-  private String arrDate;
-  private String arrTime;
+  private int dep = AirportCodes.NONE; //Departure Airport id in AirportCodes
+  private int arr = AirportCodes.NONE; //Arrival Airport id in AirportCodes
   private String error = "";
 
-  private Date departureDate;
-  private Date arrivalDate;
+  private LocalDateTime departureDateTime;
+  private LocalDateTime arrivalDateTime;
 
 
   /**
@@ -92,6 +95,24 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
     if(error.isEmpty())setFlightDuration();
   }
 
+  /**
+   * Constructs a flight from values that were already validated when the flight was first created,
+   * e.g. read back by {@link AirlineJournal}
+   * @param number Flight Number greater than zero
+   * @param dep id of a real Departure Airport in {@link AirportCodes}
+   * @param departure Departure datetime in the system time zone
+   * @param arr id of a real Arrival Airport in {@link AirportCodes}
+   * @param arrival Arrival datetime in the system time zone
+   * */
+  Flight(int number, int dep, LocalDateTime departure, int arr, LocalDateTime arrival){
+    this.flightNumber = number;
+    this.dep = dep;
+    this.arr = arr;
+    this.departureDateTime = departure;
+    this.arrivalDateTime = arrival;
+    setFlightDuration();
+  }
+
   /**
    * @return integer Flight Number
    */
@@ -132,8 +153,8 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
 
   /**
    * Ensures input is only of length 3
-   * Ensures input is alphabetical
-   * Ensures input toUpperCase()
+   * Ensures input is alphabetical, in any case
+   * Stores the id of the code from {@link AirportCodes}
    * @param input - airport code String from Constructor
    * @param type - Departure or Arrival
    * @throws  NullPointerException if input is null or of length 0
@@ -143,47 +164,28 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
     try{
       if(input==null||input.length()==0)
         throw new NullPointerException(" airport code cannot be null.");
-      input = input.toUpperCase();//case insensitive
-      if(input.length()!=3||!isAirportCodeAlphabetic(input))
+      int id = AirportCodes.idOf(input);//case insensitive
+      if(id==AirportCodes.NONE)
         throw new IllegalArgumentException(" airport code must be a 3-letter alphabetical code: ");
-      if(!isRealAirportCode(input)){
+      if(!AirportCodes.isReal(id)){
         throw new IllegalArgumentException(" airport code is not a real airport code: ");
       }
-      if(type.equals("Departure")) this.dep=input.toUpperCase();
-      if(type.equals("Arrival")) this.arr=input.toUpperCase();
+      if(type.equals("Departure")) this.dep=id;
+      if(type.equals("Arrival")) this.arr=id;
     }catch(NullPointerException e){
       error = type + e.getMessage();
       System.out.println(error);
     }catch(IllegalArgumentException e){
-      error = type + e.getMessage() + input;
+      error = type + e.getMessage() + input.toUpperCase();
       System.out.println(error);
     }
   }
-  /**
-   * @param input - airport code String from Constructor
-   * @return boolean true when airport code is alphabetic
-   * */
-  private boolean isAirportCodeAlphabetic(String input)
-  {
-    return input.matches("^[a-zA-Z]*$");
-  }
-
-  /**
-   * @param input - airport code String to be checked if real
-   * @return boolean true when airport code is from a real airport
-   * Utilizes {@code AirportNames.getNamesMap()}
-   * */
-  private boolean isRealAirportCode(String input){
-    return AirportNames.getNamesMap().containsKey(input);
-  }
-
   /**
    * Ensures date is not null and is of correct format
    * mm/dd/yyyy - leading zeros are ignored
    * */
   private boolean isValidDate(String input){
-    return input.matches("^(?:(1[0-2]|0?[1-9])/(3[01]|[12][0-9]|0?[1-9])|↵\n" +
-            "(3[01]|[12][0-9]|0?[1-9])/(1[0-2]|0?[1-9]))/(?:[0-9]{2})?[0-9]{2}$");
+    return FlightValidator.isValidDate(input);
   }
 
   /**
@@ -191,7 +193,7 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * H:mm - leading zeros can be ignored
    * */
   private boolean isValidTime(String input){
-    return input.matches("^([0-9]|0[0-9]|1[0-9]|2[0-3]):[0-5][0-9]$");
+    return FlightValidator.isValidTime24(input);
   }
 
   /**
@@ -199,7 +201,20 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * h:mm - leading zeros can be ignored
    * */
   private boolean isValid12HrMeridiem(String input){
-    return input.matches("((1[0-2]|0?[1-9]):([0-5][0-9]) ?([AaPp][Mm]))");
+    return FlightValidator.isValidTime12(input);
+  }
+
+  /**
+   * @param pattern date and time pattern of user input
+   * @return case-insensitive formatter that resolves out of range dates and times leniently
+   * */
+  private static DateTimeFormatter lenientParser(String pattern){
+    return new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .parseLenient()
+            .appendPattern(pattern)
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.LENIENT);
   }
 
   public void toggle12HrFormat(){
@@ -235,22 +250,15 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
       if (date == null || date.length() == 0 || time == null || time.length() == 0) return;
 
       String dateTime = date + " " + time;
-      Date d;
-      if (twelveHrFormat) d = formatter.parse(dateTime);
-      else d = formatter24.parse(dateTime);
+      LocalDateTime d = LocalDateTime.parse(dateTime, twelveHrFormat ? PARSE_12HR : PARSE_24HR);
+      d = d.atZone(ZoneId.systemDefault()).toLocalDateTime();//skips daylight saving gaps
 
-      if (type.equals("Departure")) {
-        this.departureDate = d;
-        this.depDate = dateFormat.format(d);
-      }
-      if (type.equals("Arrival")) {
-        this.arrivalDate = d;
-        this.arrDate = dateFormat.format(d);
-      }
+      if (type.equals("Departure")) this.departureDateTime = d;
+      if (type.equals("Arrival")) this.arrivalDateTime = d;
     } catch (NullPointerException e) {
       error = type + e.getMessage();
       System.out.println(error);
-    } catch (ParseException e) {
+    } catch (DateTimeParseException e) {
       error = "Failed to parse " + type + " date " + date + " and time " + time;
       System.out.println(error);
     } catch (IllegalArgumentException e) {
@@ -259,13 +267,22 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
     }
   }
 
+  /**
+   * Parses a datetime the same way the departure and arrival of a 12 hr format flight are parsed
+   * @param dateTime MM/dd/yyyy hh:mm am/pm, checked by {@link FlightValidator#isValidDateTime12(String)}
+   * @return the datetime in the system time zone
+   * @throws DateTimeParseException if the datetime can not be parsed
+   * */
+  static LocalDateTime parseDateTime12(String dateTime){
+    return LocalDateTime.parse(dateTime.toUpperCase(), PARSE_12HR).atZone(ZoneId.systemDefault()).toLocalDateTime();
+  }
+
   /**
    * @return String Departure Date and Time
    * */
   @Override
   public String getDepartureString() {
-    DateFormat formatter2 = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
-    return formatter2.format(getDeparture());
+    return SHORT_FORMAT.format(departureDateTime);
   }
 
   /**
@@ -273,49 +290,61 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * */
   @Override
   public Date getDeparture(){
-    return departureDate;
+    return toDate(departureDateTime);
   }
   /**
    * @return String Departure Airport 3-letter code
    * */
   @Override
   public String getSource() {
+    return AirportCodes.codeOf(dep);
+  }
+
+  /**
+   * @return int id of the Departure Airport in {@link AirportCodes}
+   * */
+  public int getSourceId() {
     return dep;
   }
 
+  /**
+   * @return Departure datetime
+   * */
+  LocalDateTime getDepartureDateTime(){
+    return departureDateTime;
+  }
+
   /**
    * @return String Departure Date
    * */
-  public String getDepDate(){return depDate;}
+  public String getDepDate(){return format(DATE_FORMAT, departureDateTime);}
 
 
   /**
    * @return String Departure Time in 12-hr am/pm format
    * */
   public String getDepTime(){
-    if(this.depTime==null)this.depTime = timeFormat.format(departureDate);
-    return depTime;
+    return format(TIME_FORMAT, departureDateTime);
   }
 
   /**
    * @return String Departure Time in 24-hr am/pm format
    * */
   public String getDepTime24(){
-    return timeFormat24.format(departureDate);
+    return format(TIME_FORMAT_24, departureDateTime);
   }
 
   /**
    * @return String Arrival Time in 12-hr format
    * */
   public String getArrTime(){
-    if(this.arrTime==null)this.arrTime = timeFormat.format(arrivalDate);
-    return arrTime;
+    return format(TIME_FORMAT, arrivalDateTime);
   }
   /**
    * @return String Arrival Time in 24-hr format
    * */
   public String getArrTime24(){
-    return timeFormat24.format(arrivalDate);
+    return format(TIME_FORMAT_24, arrivalDateTime);
   }
 
   /**
@@ -323,6 +352,13 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * */
   @Override
   public String getDestination() {
+    return AirportCodes.codeOf(arr);
+  }
+
+  /**
+   * @return int id of the Arrival Airport in {@link AirportCodes}
+   * */
+  public int getDestinationId() {
     return arr;
   }
 
@@ -331,21 +367,49 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * */
   @Override
   public String getArrivalString() {
-    DateFormat formatter = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
-    return formatter.format(getArrival());
+    return SHORT_FORMAT.format(arrivalDateTime);
+  }
+
+  /**
+   * @return Arrival datetime
+   * */
+  LocalDateTime getArrivalDateTime(){
+    return arrivalDateTime;
   }
 
   /**
    * @return String Arrival Date
    * */
-  public String getArrDate(){return arrDate;}
+  public String getArrDate(){return format(DATE_FORMAT, arrivalDateTime);}
 
   /**
    * @return Date object Arrival datetime
    * */
   @Override
   public Date getArrival(){
-    return arrivalDate;
+    return toDate(arrivalDateTime);
+  }
+
+  /**
+   * @return String of the datetime in the given format, null when the datetime was never set
+   * */
+  private static String format(DateTimeFormatter format, LocalDateTime dateTime){
+    return dateTime == null ? null : format.format(dateTime);
+  }
+
+  /**
+   * @return milliseconds since the epoch of the datetime in the system time zone,
+   * a time repeated when daylight saving ends is taken as standard time like SimpleDateFormat did
+   * */
+  private static long epochMillis(LocalDateTime dateTime){
+    return dateTime.atZone(ZoneId.systemDefault()).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+  }
+
+  /**
+   * @return Date object of the datetime in the system time zone, null when the datetime was never set
+   * */
+  private static Date toDate(LocalDateTime dateTime){
+    return dateTime == null ? null : new Date(epochMillis(dateTime));
   }
 
   public String getError(){
@@ -359,9 +423,9 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * */
   @Override
   public int compareTo(Flight o) {
-    int codeCompare = this.dep.compareTo(o.dep);
+    int codeCompare = Integer.compare(this.dep, o.dep);
     if(codeCompare!=0) return codeCompare;
-    int timeCompare = this.getDeparture().compareTo(o.getDeparture());
+    int timeCompare = this.departureDateTime.compareTo(o.departureDateTime);
     if(timeCompare!=0) return timeCompare;
     return 0;
   }
@@ -370,7 +434,7 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
    * @return  boolean True if departure time comes before arrival time
    * */
   public boolean departureBeforeArrival(){
-    return this.getDeparture().getTime()<this.getArrival().getTime();
+    return epochMillis(departureDateTime)<epochMillis(arrivalDateTime);
   }
 
   /**
@@ -379,10 +443,10 @@ public class Flight extends AbstractFlight implements Comparable<Flight> {
   public void setFlightDuration(){
     try{
       if(!departureBeforeArrival()) throw new IllegalArgumentException();
-      flightDuration = (int)((getArrival().getTime()-getDeparture().getTime())/(1000*60));
+      flightDuration = (int)((epochMillis(arrivalDateTime)-epochMillis(departureDateTime))/(1000*60));
     }catch(IllegalArgumentException e){
-      error = "Arrival date & time " + formatter.format(this.getArrival()) +
-              " cannot be earlier than Departure date & time " + formatter.format(this.getDeparture());
+      error = "Arrival date & time " + DATE_TIME_FORMAT.format(arrivalDateTime) +
+              " cannot be earlier than Departure date & time " + DATE_TIME_FORMAT.format(departureDateTime);
       System.out.println(error);
     }catch(NullPointerException e){
 
@@ -0,0 +1,529 @@
+package edu.pdx.cs410J.leolu;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A list of flights that is always sorted by {@link Flight#compareTo(Flight)}, like
+ * {@link SortedFlightList}, but stored as parallel primitive arrays instead of Flight objects:
+ * the flight number, the departure and arrival airport ids, and the departure and arrival
+ * datetimes in minutes. That is 16 bytes a flight, where a Flight object and its two
+ * datetimes take more than ten times as much.
+ *
+ * The snapshot hands out a new Flight for every <code>get</code>, built from the columns,
+ * so only the flights a reader is currently looking at are objects. The flights of a route
+ * are found from the snapshot itself: they are a part of the flights of their departure
+ * airport, whose range is found with a binary search, and their positions are kept with
+ * the snapshot the first time the route is read.
+ *
+ * The columns are either kept on the heap, as one array a column, or off the heap, as
+ * fixed-size 16 byte records in a direct ByteBuffer. Off the heap, the flights of an airline
+ * are a handful of objects however many there are, so neither heap usage nor the work of the
+ * garbage collector grows with them; the direct memory is released when the garbage collector
+ * finds the buffer of a replaced snapshot unreachable, and is limited by
+ * <code>-XX:MaxDirectMemorySize</code>, which defaults to the maximum heap size.
+ *
+ * Writers are serialized on the list and readers take an immutable snapshot without
+ * locking. A flight that sorts last is appended in place, in spare capacity that grows by half
+ * when it runs out, as in {@link SortedFlightList}. A flight that sorts before others is not
+ * copied in with every other flight: it goes to a small sorted buffer of pending flights on the
+ * heap, which the snapshot reads merged with the records, and the pending flights are merged
+ * into new records with a single copy once there are {@value #MAX_PENDING} of them, the same
+ * way {@link #addAll(Collection)} merges a batch.
+ * So in the worst case, flights added one at a time and out of order, records of about one and
+ * a half times the flights are allocated, and the records they replace left to the garbage
+ * collector, once every {@value #MAX_PENDING} flights, while a batch always allocates records
+ * for all the flights.
+ * Flights must have both airports and both datetimes.
+ */
+final class FlightColumns {
+    /** most flights kept in the pending buffer before they are merged into the records */
+    static final int MAX_PENDING = 1024;
+    private static final Snapshot EMPTY = new Snapshot(new HeapRecords(0), 0);
+
+    private final Snapshot empty;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates an empty list with its columns on the heap
+     * */
+    FlightColumns() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty list
+     * @param offHeap if True, flights are stored as records in direct memory, see {@link DirectRecords}
+     * */
+    FlightColumns(boolean offHeap) {
+        this.empty = offHeap ? new Snapshot(new DirectRecords(0), 0) : EMPTY;
+        this.snapshot = empty;
+    }
+
+    /**
+     * @return true if the flights are stored off the heap
+     * */
+    boolean isOffHeap() {
+        return empty.records instanceof DirectRecords;
+    }
+
+    /**
+     * @return an unmodifiable, sorted view of the flights at the time of the call
+     * */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return the number of flights in the list
+     * */
+    int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * Inserts the flight after every flight that does not sort after it.
+     * It is appended to the records when it sorts last, and otherwise goes to the pending flights
+     * @param flight flight to be added
+     * */
+    synchronized void add(Flight flight) {
+        Snapshot current = snapshot;
+        int stored = current.stored;
+        int src = flight.getSourceId();
+        int departure = toMinutes(flight.getDepartureDateTime());
+        int at = insertionPoint(current.records, stored, src, departure);
+        if(current.pendingCount() == 0 && at == stored){
+            Records next = stored < current.records.capacity() ? current.records : current.copy(newCapacity(stored, current.records.maxCapacity()));
+            next.set(at, flight.getNumber(), src, flight.getDestinationId(), departure, toMinutes(flight.getArrivalDateTime()));
+            snapshot = new Snapshot(next, stored + 1);
+        }else if(current.pendingCount() < MAX_PENDING){
+            snapshot = current.withPending(at, flight.getNumber(), src, flight.getDestinationId(), departure, toMinutes(flight.getArrivalDateTime()));
+        }else{
+            snapshot = merge(current, List.of(flight), newCapacity(current.size, current.records.maxCapacity()));
+        }
+    }
+
+    /**
+     * Sorts the added flights and merges them, with any pending flights, after the flights
+     * that compare as equal, so the flights are copied once and only the added flights are sorted
+     * @param added flights to be added, in any order
+     * */
+    synchronized void addAll(Collection<Flight> added) {
+        if(added.isEmpty()) return;
+        Snapshot current = snapshot;
+        snapshot = merge(current, added, current.size + added.size());
+    }
+
+    /**
+     * @param capacity capacity of the merged records, at least the number of flights of the snapshot and the added flights
+     * @return snapshot of new records with the flights of the current records, its pending flights and the added flights
+     * */
+    private static Snapshot merge(Snapshot current, Collection<Flight> added, int capacity) {
+        int pendingCount = current.pendingCount();
+        Flight[] sorted = new Flight[pendingCount + added.size()];
+        for(int i = 0; i < pendingCount; i++) sorted[i] = flightOf(current.pending, i);
+        int next = pendingCount;
+        for(Flight flight: added) sorted[next++] = flight;
+        Arrays.sort(sorted);// stable, so pending flights stay before the added flights that compare as equal
+        Records merged = current.records.allocate(capacity);
+        int from = 0, to = 0;
+        for(Flight flight: sorted){
+            int src = flight.getSourceId();
+            int departure = toMinutes(flight.getDepartureDateTime());
+            int end = insertionPoint(current.records, current.stored, src, departure);
+            merged.copyFrom(current.records, from, to, end - from);
+            to += end - from;
+            from = end;
+            merged.set(to++, flight.getNumber(), src, flight.getDestinationId(), departure, toMinutes(flight.getArrivalDateTime()));
+        }
+        merged.copyFrom(current.records, from, to, current.stored - from);
+        return new Snapshot(merged, current.stored + sorted.length);
+    }
+
+    /**
+     * @return index of the first of the first <code>size</code> records that sorts after a flight from src departing at the given minute
+     * */
+    private static int insertionPoint(Records records, int size, int src, int departure) {
+        int low = 0, high = size;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            int source = records.source(mid);
+            int compare = source != src ? Integer.compare(source, src)
+                    : Integer.compare(records.departure(mid), departure);
+            if(compare <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static Flight flightOf(Records records, int at) {
+        return new Flight(records.number(at), records.source(at), fromMinutes(records.departure(at)),
+                records.destination(at), fromMinutes(records.arrival(at)));
+    }
+
+    /**
+     * Removes every flight
+     * */
+    synchronized void clear() {
+        snapshot = empty;
+    }
+
+    private static int newCapacity(int size, int maxCapacity) {
+        if(size >= maxCapacity) throw new IllegalStateException("Cannot store more than " + maxCapacity + " flights for one airline");
+        return (int) Math.min(Math.max(8, size + (size >> 1) + 1L), maxCapacity);
+    }
+
+    /**
+     * Datetimes are stored as whole minutes since the epoch, taking the local datetime as UTC,
+     * the same as the records of {@link AirlineJournal}
+     * */
+    private static int toMinutes(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static LocalDateTime fromMinutes(int minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable view of the first <code>stored</code> flights of the records, merged with the pending flights.
+     * Slots of the records at or beyond <code>stored</code> are never read through this view.
+     * */
+    static final class Snapshot extends AbstractList<Flight> implements RandomAccess {
+        private static final Records NO_PENDING = new HeapRecords(0);
+        private static final int[] NO_POINTS = new int[0];
+
+        private final Records records;
+        private final int stored;
+        // sorted flights not in the records yet, always on the heap, and for each the index of the record it goes before
+        private final Records pending;
+        private final int[] points;
+        private final int size;
+        // K,V : route key, positions of the flights on that route
+        private final ConcurrentMap<Integer, int[]> routes = new ConcurrentHashMap<>();
+
+        private Snapshot(Records records, int stored) {
+            this(records, stored, NO_PENDING, NO_POINTS);
+        }
+
+        private Snapshot(Records records, int stored, Records pending, int[] points) {
+            this.records = records;
+            this.stored = stored;
+            this.pending = pending;
+            this.points = points;
+            this.size = stored + points.length;
+        }
+
+        @Override
+        public Flight get(int index) {
+            Objects.checkIndex(index, size);
+            int at = locate(index);
+            return at >= 0 ? flightOf(records, at) : flightOf(pending, -1 - at);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param route key of the route, made by the airline from the airport ids
+         * @return unmodifiable, sorted view of the flights from src to dest
+         * */
+        List<Flight> route(int route, int src, int dest) {
+            int[] positions = routes.computeIfAbsent(route, k -> positionsOf(src, dest));
+            return new AbstractRandomAccessList(positions.length) {
+                @Override
+                public Flight get(int index) {
+                    Objects.checkIndex(index, positions.length);
+                    return Snapshot.this.get(positions[index]);
+                }
+            };
+        }
+
+        /**
+         * @return positions of the flights from src to dest, in order
+         * */
+        private int[] positionsOf(int src, int dest) {
+            int from = insertionPoint(src, Integer.MIN_VALUE), to = insertionPoint(src, Integer.MAX_VALUE);
+            int count = 0;
+            for(int i = from; i < to; i++) if(destination(i) == dest) count++;
+            int[] positions = new int[count];
+            count = 0;
+            for(int i = from; i < to; i++) if(destination(i) == dest) positions[count++] = i;
+            return positions;
+        }
+
+        /**
+         * @return position of the first flight that sorts after a flight from src departing at the given minute
+         * */
+        private int insertionPoint(int src, int departure) {
+            return FlightColumns.insertionPoint(records, stored, src, departure)
+                    + FlightColumns.insertionPoint(pending, points.length, src, departure);
+        }
+
+        private int destination(int index) {
+            int at = locate(index);
+            return at >= 0 ? records.destination(at) : pending.destination(-1 - at);
+        }
+
+        /**
+         * A pending flight that goes before record <code>point</code> and has <code>j</code> pending flights
+         * before it is at position <code>point + j</code>, and every other position is a record
+         * @return index of the record at the position, or <code>-1 - index</code> of the pending flight at it
+         * */
+        private int locate(int index) {
+            if(points.length == 0) return index;
+            int low = 0, high = points.length;
+            while(low < high){
+                int mid = (low + high) >>> 1;
+                if(points[mid] + mid < index) low = mid + 1;
+                else high = mid;
+            }
+            if(low < points.length && points[low] + low == index) return -1 - low;
+            return index - low;
+        }
+
+        private int pendingCount() {
+            return points.length;
+        }
+
+        /**
+         * @param point index of the record the flight goes before
+         * @return snapshot of the same records, with the flight inserted in a copy of the pending flights
+         * after every pending flight that does not sort after it
+         * */
+        private Snapshot withPending(int point, int number, int src, int dest, int departure, int arrival) {
+            int count = points.length;
+            int at = FlightColumns.insertionPoint(pending, count, src, departure);
+            Records added = pending.allocate(count + 1);
+            added.copyFrom(pending, 0, 0, at);
+            added.set(at, number, src, dest, departure, arrival);
+            added.copyFrom(pending, at, at + 1, count - at);
+            int[] addedPoints = new int[count + 1];
+            System.arraycopy(points, 0, addedPoints, 0, at);
+            addedPoints[at] = point;
+            System.arraycopy(points, at, addedPoints, at + 1, count - at);
+            return new Snapshot(records, stored, added, addedPoints);
+        }
+
+        /**
+         * @return records of the given capacity with the records of this snapshot, which has no pending flights
+         * */
+        private Records copy(int capacity) {
+            Records copy = records.allocate(capacity);
+            copy.copyFrom(records, 0, 0, stored);
+            return copy;
+        }
+    }
+
+    /**
+     * Fixed capacity storage of the flight fields, addressed by position
+     * */
+    private abstract static class Records {
+        abstract int capacity();
+
+        abstract int maxCapacity();
+
+        abstract int number(int at);
+
+        abstract int source(int at);
+
+        abstract int destination(int at);
+
+        abstract int departure(int at);
+
+        abstract int arrival(int at);
+
+        abstract void set(int at, int number, int src, int dest, int departure, int arrival);
+
+        /**
+         * Copies <code>length</code> flights of other records of the same kind, starting at <code>from</code>, into these at <code>to</code>
+         * */
+        abstract void copyFrom(Records other, int from, int to, int length);
+
+        /**
+         * @return new, empty records of the same kind with the given capacity
+         * */
+        abstract Records allocate(int capacity);
+    }
+
+    /**
+     * Records kept on the heap, as one primitive array a field
+     * */
+    private static final class HeapRecords extends Records {
+        private final int[] numbers;
+        private final short[] sources;
+        private final short[] destinations;
+        private final int[] departures;
+        private final int[] arrivals;
+
+        HeapRecords(int capacity) {
+            this.numbers = new int[capacity];
+            this.sources = new short[capacity];
+            this.destinations = new short[capacity];
+            this.departures = new int[capacity];
+            this.arrivals = new int[capacity];
+        }
+
+        @Override
+        int capacity() {
+            return numbers.length;
+        }
+
+        @Override
+        int maxCapacity() {
+            return Integer.MAX_VALUE - 8;
+        }
+
+        @Override
+        int number(int at) {
+            return numbers[at];
+        }
+
+        @Override
+        int source(int at) {
+            return sources[at];
+        }
+
+        @Override
+        int destination(int at) {
+            return destinations[at];
+        }
+
+        @Override
+        int departure(int at) {
+            return departures[at];
+        }
+
+        @Override
+        int arrival(int at) {
+            return arrivals[at];
+        }
+
+        @Override
+        void set(int at, int number, int src, int dest, int departure, int arrival) {
+            numbers[at] = number;
+            sources[at] = (short) src;
+            destinations[at] = (short) dest;
+            departures[at] = departure;
+            arrivals[at] = arrival;
+        }
+
+        @Override
+        void copyFrom(Records other, int from, int to, int length) {
+            HeapRecords heap = (HeapRecords) other;
+            System.arraycopy(heap.numbers, from, numbers, to, length);
+            System.arraycopy(heap.sources, from, sources, to, length);
+            System.arraycopy(heap.destinations, from, destinations, to, length);
+            System.arraycopy(heap.departures, from, departures, to, length);
+            System.arraycopy(heap.arrivals, from, arrivals, to, length);
+        }
+
+        @Override
+        Records allocate(int capacity) {
+            return new HeapRecords(capacity);
+        }
+    }
+
+    /**
+     * Records kept off the heap, in a direct ByteBuffer of 16 byte records:
+     * the flight number, the departure and arrival airport ids, and the departure and arrival minutes.
+     * Only absolute gets and puts are used, so readers never share the position of the buffer.
+     * */
+    private static final class DirectRecords extends Records {
+        private static final int NUMBER = 0, SOURCE = 4, DESTINATION = 6, DEPARTURE = 8, ARRIVAL = 12;
+        private static final int RECORD_SIZE = 16;
+        // a ByteBuffer is indexed by int
+        private static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+
+        private final ByteBuffer records;
+
+        DirectRecords(int capacity) {
+            if(capacity > MAX_CAPACITY)
+                throw new IllegalStateException("Cannot store more than " + MAX_CAPACITY + " flights off the heap for one airline");
+            this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        int capacity() {
+            return records.capacity() / RECORD_SIZE;
+        }
+
+        @Override
+        int maxCapacity() {
+            return MAX_CAPACITY;
+        }
+
+        @Override
+        int number(int at) {
+            return records.getInt(at * RECORD_SIZE + NUMBER);
+        }
+
+        @Override
+        int source(int at) {
+            return records.getShort(at * RECORD_SIZE + SOURCE);
+        }
+
+        @Override
+        int destination(int at) {
+            return records.getShort(at * RECORD_SIZE + DESTINATION);
+        }
+
+        @Override
+        int departure(int at) {
+            return records.getInt(at * RECORD_SIZE + DEPARTURE);
+        }
+
+        @Override
+        int arrival(int at) {
+            return records.getInt(at * RECORD_SIZE + ARRIVAL);
+        }
+
+        @Override
+        void set(int at, int number, int src, int dest, int departure, int arrival) {
+            int offset = at * RECORD_SIZE;
+            records.putInt(offset + NUMBER, number);
+            records.putShort(offset + SOURCE, (short) src);
+            records.putShort(offset + DESTINATION, (short) dest);
+            records.putInt(offset + DEPARTURE, departure);
+            records.putInt(offset + ARRIVAL, arrival);
+        }
+
+        @Override
+        void copyFrom(Records other, int from, int to, int length) {
+            records.put(to * RECORD_SIZE, ((DirectRecords) other).records, from * RECORD_SIZE, length * RECORD_SIZE);
+        }
+
+        @Override
+        Records allocate(int capacity) {
+            return new DirectRecords(capacity);
+        }
+    }
+
+    /**
+     * Read only list of a fixed size whose flights are built on demand
+     * */
+    private abstract static class AbstractRandomAccessList extends AbstractList<Flight> implements RandomAccess {
+        private final int size;
+
+        AbstractRandomAccessList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
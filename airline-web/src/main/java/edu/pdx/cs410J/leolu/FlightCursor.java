@@ -0,0 +1,109 @@
+/**
+ * The {code FlightCursor} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Position in a list of flights sorted by {@link Flight#compareTo(Flight)}, used to page
+ * through the flights of an airline.
+ *
+ * A cursor is the sort key of the last flight of a page, its departure airport and
+ * departure datetime, with the number of flights of that key that were already returned.
+ * It does not depend on indexes, so flights added before the cursor do not shift the next
+ * page, and flights with the same key keep the order they were added in, so the count
+ * skips the same flights on every request.
+ *
+ * The String form <code>SRC-yyyyMMddHHmm-count</code> is what the <code>cursor</code>
+ * parameter of {@link AirlineServlet} takes. {@link #after(FlightCursor, List)} gives the
+ * same cursor the servlet would, so a client can compute the next cursor from the page it read.
+ */
+final class FlightCursor {
+    private static final DateTimeFormatter DEPARTURE = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private final int src;
+    private final LocalDateTime departure;
+    private final int count;
+
+    private FlightCursor(int src, LocalDateTime departure, int count) {
+        this.src = src;
+        this.departure = departure;
+        this.count = count;
+    }
+
+    /**
+     * @param cursor String form of a cursor
+     * @return the cursor
+     * @throws IllegalArgumentException if the String is not a cursor
+     * */
+    static FlightCursor parse(String cursor) {
+        String[] parts = cursor.split("-");
+        if (parts.length != 3) throw new IllegalArgumentException("Cursor must be SRC-yyyyMMddHHmm-count: " + cursor);
+        int src = AirportCodes.idOf(parts[0]);
+        if (!AirportCodes.isReal(src)) throw new IllegalArgumentException("Cursor airport code is not a real airport code: " + cursor);
+        try {
+            LocalDateTime departure = LocalDateTime.parse(parts[1], DEPARTURE);
+            int count = Integer.parseInt(parts[2]);
+            if (count <= 0) throw new IllegalArgumentException("Cursor count must be greater than zero: " + cursor);
+            return new FlightCursor(src, departure, count);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor must be SRC-yyyyMMddHHmm-count: " + cursor);
+        }
+    }
+
+    /**
+     * @param previous cursor the page was read with, null for the first page
+     * @param page flights of a page, not empty, in sorted order
+     * @return cursor of the page that follows the given page
+     * */
+    static FlightCursor after(FlightCursor previous, List<Flight> page) {
+        Flight last = page.get(page.size() - 1);
+        int count = 1;
+        for (int i = page.size() - 2; i >= 0 && page.get(i).compareTo(last) == 0; i--) count++;
+        FlightCursor next = new FlightCursor(last.getSourceId(), last.getDepartureDateTime(), count);
+        if (count == page.size() && previous != null && previous.compareTo(last) == 0) {
+            return new FlightCursor(next.src, next.departure, previous.count + count);
+        }
+        return next;
+    }
+
+    /**
+     * @param flights flights sorted by {@link Flight#compareTo(Flight)}
+     * @return index of the first flight after the cursor
+     * */
+    int startIndex(List<Flight> flights) {
+        int low = 0, high = flights.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareTo(flights.get(mid)) > 0) low = mid + 1;
+            else high = mid;
+        }
+        int skipped = 0;
+        while (low < flights.size() && skipped < count && compareTo(flights.get(low)) == 0) {
+            low++;
+            skipped++;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key of the cursor with a flight the same way {@link Flight#compareTo(Flight)} does
+     * */
+    private int compareTo(Flight flight) {
+        int codeCompare = Integer.compare(src, flight.getSourceId());
+        if (codeCompare != 0) return codeCompare;
+        return departure.compareTo(flight.getDepartureDateTime());
+    }
+
+    @Override
+    public String toString() {
+        return AirportCodes.codeOf(src) + "-" + DEPARTURE.format(departure) + "-" + count;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The {code JsonDumper} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineDumper;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+/**
+ * <code>JsonDumper</code> class for Project 5.
+ * Writes an airline as compact JSON, read back by {@link JsonParser}:
+ * <pre>{"name":"EVA Air","flights":[{"number":26,"src":"PDX","depart":"2023-01-23T10:40","dest":"SEA","arrive":"2023-01-23T11:40"}]}</pre>
+ * Datetimes are ISO-8601 local datetimes to the minute. There is no whitespace between the
+ * tokens, and the flights are written one at a time, so nothing but the writer's buffer is held
+ * while dumping. The writer is flushed once the airline name is written, the same as
+ * {@link StreamingXmlDumper}, so an HTTP response starts sending right away.
+ */
+public class JsonDumper implements AirlineDumper<Airline> {
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private final Writer writer;
+
+    public JsonDumper(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @param airline Accepts an airline object and dumps the airline and its flight information
+     * */
+    @Override
+    public void dump(Airline airline) {
+        dump(airline.getName(), airline.getFlights());
+    }
+
+    /**
+     * Dumps the given flights under the airline name, without building an Airline for them
+     * @param airlineName name of the airline
+     * @param flights flights to write, in the order they are given
+     * */
+    public void dump(String airlineName, Collection<Flight> flights) {
+        PrintWriter pw = new PrintWriter(this.writer);
+        pw.write("{\"name\":");
+        writeString(pw, airlineName);
+        pw.write(",\"flights\":[");
+        pw.flush();
+        boolean first = true;
+        for(Flight f: flights){
+            if(!first) pw.write(',');
+            first = false;
+            writeFlight(pw, f);
+        }
+        pw.write("]}");
+        pw.flush();
+    }
+
+    private static void writeFlight(PrintWriter pw, Flight f) {
+        pw.write("{\"number\":");
+        pw.write(Integer.toString(f.getNumber()));
+        pw.write(",\"src\":\"");
+        pw.write(f.getSource());
+        pw.write("\",\"depart\":\"");
+        writeDateTime(pw, f.getDepartureDateTime());
+        pw.write("\",\"dest\":\"");
+        pw.write(f.getDestination());
+        pw.write("\",\"arrive\":\"");
+        writeDateTime(pw, f.getArrivalDateTime());
+        pw.write("\"}");
+    }
+
+    private static void writeDateTime(PrintWriter pw, LocalDateTime dateTime) {
+        DATE_TIME.formatTo(dateTime, pw);
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control characters
+     * */
+    private static void writeString(PrintWriter pw, String text) {
+        pw.write('"');
+        int start = 0;
+        for(int i = 0; i < text.length(); i++){
+            char c = text.charAt(i);
+            if(c != '"' && c != '\\' && c >= 0x20) continue;
+            pw.write(text, start, i - start);
+            switch (c) {
+                case '"': pw.write("\\\""); break;
+                case '\\': pw.write("\\\\"); break;
+                case '\n': pw.write("\\n"); break;
+                case '\r': pw.write("\\r"); break;
+                case '\t': pw.write("\\t"); break;
+                default: pw.write(String.format("\\u%04x", (int) c)); break;
+            }
+            start = i + 1;
+        }
+        pw.write(text, start, text.length() - start);
+        pw.write('"');
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * The {code JsonParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>JsonParser</code> class for Project 5.
+ * Reads the JSON written by {@link JsonDumper} in a single pass over the characters:
+ * each flight is built from its fields as soon as its object is closed, straight from the
+ * flight number, the airport ids and the datetimes, without the text formats of {@link Flight}
+ * in between. Members may come in any order, and members it does not know are skipped.
+ */
+public class JsonParser implements AirlineParser<Airline> {
+    private static final int END = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position, limit;
+    private long offset;
+    private final StringBuilder text = new StringBuilder();
+    private StringBuilder err = new StringBuilder();
+
+    /**
+     * Constructor
+     * @param reader An initialized Reader with the JSON content for parsing
+     * */
+    public JsonParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return Airline object with every flight when all flights are valid
+     * @return null when any flight information is invalid, see {@link #getErrorMsg()}
+     * @throws ParserException if the content can not be read or is not an airline document
+     * */
+    public Airline parse() throws ParserException {
+        try {
+            String name = null;
+            List<Flight> flights = new ArrayList<>();
+            expect('{');
+            if(!consume('}')){
+                do {
+                    String member = readString();
+                    expect(':');
+                    switch (member) {
+                        case "name":
+                            name = readString();
+                            break;
+                        case "flights":
+                            if(!readFlights(flights)) return null;
+                            break;
+                        default:
+                            skipValue();
+                            break;
+                    }
+                } while(consume(','));
+                expect('}');
+            }
+            if(peek() != END) throw error("Unexpected content after the airline");
+            if(name == null) throw new ParserException("JSON content does not contain an airline name.");
+            Airline airline = new Airline(name);
+            airline.addFlights(flights);//sorts once instead of once per flight
+            return airline;
+        } catch (IOException e) {
+            throw new ParserException("JSON content could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return String of the invalid flight found by {@link #parse()}
+     * */
+    public String getErrorMsg() {
+        return err.toString();
+    }
+
+    /**
+     * Reads the array of flights
+     * @return false when a flight is invalid
+     * */
+    private boolean readFlights(List<Flight> flights) throws IOException, ParserException {
+        expect('[');
+        if(consume(']')) return true;
+        do {
+            Flight flight = readFlight(flights.size() + 1);
+            if(flight == null) return false;
+            flights.add(flight);
+        } while(consume(','));
+        expect(']');
+        return true;
+    }
+
+    /**
+     * @param count position of the flight in the document, for the error message
+     * @return the flight, or null when its information is invalid
+     * */
+    private Flight readFlight(int count) throws IOException, ParserException {
+        long number = 0;
+        int src = AirportCodes.NONE, dest = AirportCodes.NONE;
+        LocalDateTime depart = null, arrive = null;
+        expect('{');
+        if(!consume('}')){
+            do {
+                String member = readString();
+                expect(':');
+                switch (member) {
+                    case "number":
+                        number = readNumber();
+                        break;
+                    case "src":
+                        src = AirportCodes.idOf(readString());
+                        break;
+                    case "dest":
+                        dest = AirportCodes.idOf(readString());
+                        break;
+                    case "depart":
+                        depart = readDateTime();
+                        break;
+                    case "arrive":
+                        arrive = readDateTime();
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            } while(consume(','));
+            expect('}');
+        }
+        String error = null;
+        if(number <= 0 || number > Integer.MAX_VALUE) error = "flight number must be a positive integer";
+        else if(!AirportCodes.isReal(src) || !AirportCodes.isReal(dest)) error = "both airport codes must be real airport codes";
+        else if(depart == null || arrive == null) error = "both datetimes are required, as yyyy-MM-ddTHH:mm";
+        else if(!arrive.isAfter(depart)) error = "arrival is not after departure";
+        if(error != null){
+            err.append("Flight information for the number ").append(count).append(" of JSON content is invalid, ").append(error);
+            System.out.println(err);
+            return null;
+        }
+        return new Flight((int) number, src, depart, dest, arrive);
+    }
+
+    /**
+     * Reads a datetime of the {@link JsonDumper#DATE_TIME} format, yyyy-MM-ddTHH:mm
+     * @return the datetime, or null when it is not a valid datetime
+     * */
+    private LocalDateTime readDateTime() throws IOException, ParserException {
+        String s = readString();
+        if(s.length() != 16 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T' || s.charAt(13) != ':') return null;
+        try {
+            return LocalDateTime.of(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10), digits(s, 11, 13), digits(s, 14, 16));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of the decimal digits from begin to end, or -1 if any is not a digit
+     * */
+    private static int digits(String s, int begin, int end) {
+        int value = 0;
+        for(int i = begin; i < end; i++){
+            char c = s.charAt(i);
+            if(c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Reads a whole number
+     * */
+    private long readNumber() throws IOException, ParserException {
+        skipWhitespace();
+        boolean negative = consumeChar('-');
+        long value = 0;
+        int digits = 0;
+        int c;
+        while((c = peekChar()) >= '0' && c <= '9'){
+            if(++digits > 18) throw error("Number is too large");
+            value = value * 10 + (c - '0');
+            position++;
+        }
+        if(digits == 0) throw error("Expected a number");
+        c = peekChar();
+        if(c == '.' || c == 'e' || c == 'E') throw error("Expected a whole number");
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a string, with its escapes replaced
+     * */
+    private String readString() throws IOException, ParserException {
+        expect('"');
+        text.setLength(0);
+        while(true){
+            int c = nextChar();
+            if(c == '"') return text.toString();
+            if(c == END) throw error("Unterminated string");
+            if(c < 0x20) throw error("Control character in string");
+            if(c != '\\'){
+                text.append((char) c);
+                continue;
+            }
+            c = nextChar();
+            switch (c) {
+                case '"': case '\\': case '/': text.append((char) c); break;
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    int unicode = 0;
+                    for(int i = 0; i < 4; i++){
+                        int digit = Character.digit(nextChar(), 16);
+                        if(digit < 0) throw error("Invalid unicode escape");
+                        unicode = unicode * 16 + digit;
+                    }
+                    text.append((char) unicode);
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    /**
+     * Skips a value of a member that is not read
+     * */
+    private void skipValue() throws IOException, ParserException {
+        switch (peek()) {
+            case '"':
+                readString();
+                break;
+            case '{':
+                expect('{');
+                if(consume('}')) break;
+                do {
+                    readString();
+                    expect(':');
+                    skipValue();
+                } while(consume(','));
+                expect('}');
+                break;
+            case '[':
+                expect('[');
+                if(consume(']')) break;
+                do {
+                    skipValue();
+                } while(consume(','));
+                expect(']');
+                break;
+            default:
+                int length = 0;
+                for(int c = peekChar(); c == '-' || c == '+' || c == '.' || Character.isLetterOrDigit(c); c = peekChar()){
+                    position++;
+                    length++;
+                }
+                if(length == 0) throw error("Expected a value");
+                break;
+        }
+    }
+
+    private void expect(char expected) throws IOException, ParserException {
+        if(!consume(expected)) throw error("Expected '" + expected + "'");
+    }
+
+    /**
+     * @return true, having read it, if the next character after any whitespace is the expected one
+     * */
+    private boolean consume(char expected) throws IOException {
+        skipWhitespace();
+        return consumeChar(expected);
+    }
+
+    private boolean consumeChar(char expected) throws IOException {
+        if(peekChar() != expected) return false;
+        position++;
+        return true;
+    }
+
+    /**
+     * @return the next character after any whitespace, without reading it
+     * */
+    private int peek() throws IOException {
+        skipWhitespace();
+        return peekChar();
+    }
+
+    private void skipWhitespace() throws IOException {
+        for(int c = peekChar(); c == ' ' || c == '\n' || c == '\r' || c == '\t'; c = peekChar()) position++;
+    }
+
+    private int nextChar() throws IOException {
+        int c = peekChar();
+        if(c != END) position++;
+        return c;
+    }
+
+    private int peekChar() throws IOException {
+        if(position == limit){
+            offset += limit;
+            limit = reader.read(buffer);
+            position = 0;
+            if(limit <= 0){
+                limit = 0;
+                return END;
+            }
+        }
+        return buffer[position];
+    }
+
+    private ParserException error(String message) {
+        err.append(message).append(" at character ").append(offset + position);
+        return new ParserException("JSON content could not be parsed: " + err);
+    }
+}
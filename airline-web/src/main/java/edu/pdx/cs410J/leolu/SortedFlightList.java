@@ -0,0 +1,135 @@
+package edu.pdx.cs410J.leolu;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list of flights that is always sorted by {@link Flight#compareTo(Flight)}.
+ * Flights that compare as equal keep the order they were added in.
+ *
+ * Writers are serialized on the list, readers take an immutable snapshot
+ * of the flights without locking. A flight that sorts after every existing
+ * flight is appended into spare capacity of the current array, which no
+ * published snapshot can see, so adding flights in order does not copy.
+ * Any other insert copies the array before the new snapshot is published.
+ */
+final class SortedFlightList {
+    private static final Flight[] EMPTY = new Flight[0];
+
+    private volatile Snapshot snapshot = new Snapshot(EMPTY, 0);
+
+    SortedFlightList() {
+    }
+
+    /**
+     * @param flights flights to start the list with, in any order
+     * */
+    SortedFlightList(Collection<Flight> flights) {
+        addAll(flights);
+    }
+
+    /**
+     * @return an unmodifiable, sorted view of the flights at the time of the call
+     * */
+    List<Flight> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return the number of flights in the list
+     * */
+    int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * Inserts the flight after every flight that does not sort after it
+     * @param flight flight to be added
+     * */
+    synchronized void add(Flight flight) {
+        Snapshot current = snapshot;
+        Flight[] flights = current.flights;
+        int size = current.size;
+        int at = insertionPoint(flights, size, flight);
+        if(at == size){
+            if(size == flights.length) flights = Arrays.copyOf(flights, newCapacity(size));
+            flights[size] = flight;
+        }else{
+            Flight[] copy = new Flight[newCapacity(size)];
+            System.arraycopy(flights, 0, copy, 0, at);
+            copy[at] = flight;
+            System.arraycopy(flights, at, copy, at + 1, size - at);
+            flights = copy;
+        }
+        snapshot = new Snapshot(flights, size + 1);
+    }
+
+    /**
+     * Adds every flight with a single copy and a single stable sort
+     * @param added flights to be added, in any order
+     * */
+    synchronized void addAll(Collection<Flight> added) {
+        if(added.isEmpty()) return;
+        Snapshot current = snapshot;
+        Flight[] flights = Arrays.copyOf(current.flights, current.size + added.size());
+        int size = current.size;
+        for(Flight flight: added){
+            flights[size++] = flight;
+        }
+        Arrays.sort(flights, 0, size);
+        snapshot = new Snapshot(flights, size);
+    }
+
+    /**
+     * Removes every flight
+     * */
+    synchronized void clear() {
+        snapshot = new Snapshot(EMPTY, 0);
+    }
+
+    /**
+     * @return index of the first flight that sorts after the given flight
+     * */
+    private static int insertionPoint(Flight[] flights, int size, Flight flight) {
+        int low = 0, high = size;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(flights[mid].compareTo(flight) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int newCapacity(int size) {
+        return Math.max(8, size + (size >> 1) + 1);
+    }
+
+    /**
+     * Immutable view of the first <code>size</code> flights of an array.
+     * Slots at or beyond <code>size</code> are never read through this view.
+     * */
+    private static final class Snapshot extends AbstractList<Flight> implements RandomAccess {
+        private final Flight[] flights;
+        private final int size;
+
+        Snapshot(Flight[] flights, int size) {
+            this.flights = flights;
+            this.size = size;
+        }
+
+        @Override
+        public Flight get(int index) {
+            Objects.checkIndex(index, size);
+            return flights[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * The {code StreamingXmlDumper} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineDumper;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * <code>StreamingXmlDumper</code> class for Project 4.
+ * Produces the same valid XML document as {@link XmlDumper} according to provided DTD:
+ * http://www.cs.pdx.edu/~whitlock/dtds/airline.dtd
+ * Flights are written one at a time with an <code>XMLStreamWriter</code>,
+ * so no DOM Document is held in memory while dumping.
+ * When dumping to a writer, the writer is flushed once the airline name is written,
+ * so an HTTP response commits its headers and starts sending right away, and the
+ * flights then go out as the writer's buffer fills.
+ */
+public class StreamingXmlDumper implements AirlineDumper<Airline> {
+    private static final String ENCODING = "us-ascii";
+    private static final String DECLARATION =
+            "<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" standalone=\"no\"?>";
+    private static final String DOCTYPE =
+            "<!DOCTYPE airline SYSTEM \"" + AirlineXmlHelper.SYSTEM_ID + "\">";
+    private static final String INDENT = "    ";
+    private static final String NEWLINE = System.lineSeparator();
+
+    private String filepath;
+    private Writer writer;
+    private StringBuilder err = new StringBuilder();
+
+    public StreamingXmlDumper(String filepath) {
+        this.filepath = filepath;
+    }
+
+    public StreamingXmlDumper(Writer writer){this.writer = writer;}
+
+    /**
+     * @param airways Accepts an airline object
+     * streams the airline and its flight information into an XML file or writer
+     * */
+    @Override
+    public void dump(Airline airways) {
+        if(airways==null){
+            err.append("StreamingXmlDumper dump method does not accept null for airline object!");
+            System.err.println(err);
+            return;
+        }
+        dump(airways.getName(), airways.getFlights());
+    }
+
+    /**
+     * Streams an airline document with the given flights, without building an Airline for them,
+     * e.g. the flights of a single route
+     * @param airlineName name of the airline
+     * @param flights flights to write, in the order they are given
+     * */
+    public void dump(String airlineName, Collection<Flight> flights) {
+        try {
+            if(filepath!=null){
+                try(OutputStream out = new BufferedOutputStream(new FileOutputStream(filepath))){
+                    out.write((DECLARATION + NEWLINE).getBytes(StandardCharsets.US_ASCII));
+                    XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, ENCODING);
+                    writeAirline(xml, airlineName, flights);
+                }
+                System.out.println("XML file for " + airlineName + " created successfully.");
+            }else{
+                writer.write(DECLARATION + NEWLINE);
+                XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+                writeAirline(xml, airlineName, flights);
+                writer.flush();
+            }
+        } catch (IOException e) {
+            err.append("Could not open the XML file for writing.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        } catch (XMLStreamException e) {
+            err.append("XMLStreamWriter failed to write airline to xml file.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the doctype, the airline name and each of the flights
+     * The underlying stream is flushed but left open
+     * */
+    private void writeAirline(XMLStreamWriter xml, String airlineName, Collection<Flight> flights)
+            throws XMLStreamException, IOException {
+        xml.writeDTD(DOCTYPE);
+        xml.writeCharacters(NEWLINE);
+        xml.writeStartElement("airline");
+        newLine(xml, 1);
+        writeTextElement(xml, "name", airlineName);
+        if(writer!=null){
+            xml.flush();
+            writer.flush();
+        }
+        for(Flight fl: flights){
+            newLine(xml, 1);
+            writeFlight(xml, fl);
+        }
+        newLine(xml, 0);
+        xml.writeEndElement();
+        xml.writeCharacters(NEWLINE);
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+
+    /**
+     * Writes the flight element and its children for a single flight
+     * */
+    private void writeFlight(XMLStreamWriter xml, Flight fl) throws XMLStreamException {
+        xml.writeStartElement("flight");
+        newLine(xml, 2);
+        writeTextElement(xml, "number", Integer.toString(fl.getNumber()));
+        /*Departure*/
+        newLine(xml, 2);
+        writeTextElement(xml, "src", fl.getSource());
+        newLine(xml, 2);
+        writeDatetime(xml, "depart", fl.getDepDate(), fl.getDepTime24());
+        /*Arrival*/
+        newLine(xml, 2);
+        writeTextElement(xml, "dest", fl.getDestination());
+        newLine(xml, 2);
+        writeDatetime(xml, "arrive", fl.getArrDate(), fl.getArrTime24());
+        newLine(xml, 1);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes the depart or arrive element with its date and time elements
+     * @param type depart or arrive
+     * @param date MM/dd/yyyy date of the flight
+     * @param time H:mm time of the flight
+     * */
+    private void writeDatetime(XMLStreamWriter xml, String type, String date, String time) throws XMLStreamException {
+        String[] monthDayYear = date.split("/");
+        String[] hoursMins = time.split(":");
+        xml.writeStartElement(type);
+        newLine(xml, 3);
+        xml.writeEmptyElement("date");
+        xml.writeAttribute("day", monthDayYear[1]);
+        xml.writeAttribute("month", monthDayYear[0]);
+        xml.writeAttribute("year", monthDayYear[2]);
+        newLine(xml, 3);
+        xml.writeEmptyElement("time");
+        xml.writeAttribute("hour", hoursMins[0]);
+        xml.writeAttribute("minute", hoursMins[1]);
+        newLine(xml, 2);
+        xml.writeEndElement();
+    }
+
+    private void writeTextElement(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        writeAsciiText(xml, text);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes text content, replacing characters outside of us-ascii with
+     * decimal character references the same way the DOM transformer does
+     * */
+    private void writeAsciiText(XMLStreamWriter xml, String text) throws XMLStreamException {
+        int start = 0;
+        for(int i=0; i<text.length(); ){
+            int cp = text.codePointAt(i);
+            if(cp > 0x7F){
+                if(start < i) xml.writeCharacters(text.substring(start, i));
+                xml.writeEntityRef("#" + cp);
+                start = i + Character.charCount(cp);
+            }
+            i += Character.charCount(cp);
+        }
+        if(start < text.length()) xml.writeCharacters(text.substring(start));
+    }
+
+    /**
+     * Writes a line break followed by the indentation for the given depth,
+     * matching the indented output of the DOM transformer
+     * */
+    private void newLine(XMLStreamWriter xml, int depth) throws XMLStreamException {
+        xml.writeCharacters(NEWLINE + INDENT.repeat(depth));
+    }
+
+    /**
+     * Deletes the XML file using the filepath associated with the StreamingXmlDumper object
+     * */
+    public void deleteXmlFile(){
+        File temp = new File(filepath);
+        temp.delete();
+    }
+
+    /**
+     * @return String of error message stored within StreamingXmlDumper object
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * The {code StreamingXmlParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>StreamingXmlParser</code> class for Project 5.
+ * Streaming alternative to {@link XmlParser} for large airline documents, such as
+ * a batch of flights posted to {@link AirlineServlet}.
+ * The document is still validated against the provided DTD:
+ * http://www.cs.pdx.edu/~whitlock/dtds/airline.dtd
+ * but no DOM is built, each flight is created as soon as its closing flight tag is read,
+ * and the flights are added to the airline with a single sort once the document is read.
+ */
+public class StreamingXmlParser implements AirlineParser<Airline> {
+    private final Reader reader;
+    private StringBuilder err = new StringBuilder();
+
+    /**
+     * Constructor for StreamingXmlParser
+     * @param reader - an initialized Reader with the xml content to be parsed
+     * */
+    public StreamingXmlParser(Reader reader){
+        this.reader = reader;
+    }
+
+    /**
+     * parse() method
+     * @return Airline object when the XML content is successfully parsed
+     * @return null when any flight information is invalid
+     * @throws ParserException if the content can not be read or does not conform to the DTD
+     * */
+    public Airline parse() throws ParserException{
+        FlightHandler handler = new FlightHandler();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setValidating(true);
+            SAXParser parser = factory.newSAXParser();
+            parser.parse(new InputSource(reader), handler);
+        } catch (InvalidFlightException e) {
+            System.out.println(err);
+            return null;
+        } catch (SAXException | IOException e) {
+            err.append(e.getMessage());
+            throw new ParserException("XML content could not be parsed: " + e.getMessage(), e);
+        } catch (ParserConfigurationException e) {
+            err.append("SAXParserFactory could not produce a parser.");
+            System.out.println(err);
+            throw new RuntimeException(e);
+        }
+        if(handler.airline == null) throw new ParserException("XML content does not contain an airline name.");
+        handler.airline.addFlights(handler.flights);
+        return handler.airline;
+    }
+
+    /**
+     * @return String of stored error message
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+
+    /**
+     * Thrown by the handler to stop parsing once a flight with invalid information is read
+     * */
+    private static class InvalidFlightException extends SAXException {
+        InvalidFlightException(String message){
+            super(message);
+        }
+    }
+
+    /**
+     * SAX handler that collects the flights one at a time.
+     * Only the values of the flight currently being read are kept.
+     * DTD resolution and validation errors are delegated to {@link AirlineXmlHelper}
+     * */
+    private class FlightHandler extends DefaultHandler {
+        private final AirlineXmlHelper helper = new AirlineXmlHelper();
+        private final StringBuilder text = new StringBuilder();
+        private final List<Flight> flights = new ArrayList<>();
+        private Airline airline;
+        private boolean departing;
+        private String number, src, dest;
+        private String departDate, departTime, arriveDate, arriveTime;
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+            return helper.resolveEntity(publicId, systemId);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            helper.warning(e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            helper.error(e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            helper.fatalError(e);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            text.setLength(0);
+            switch (qName) {
+                case "depart":
+                    departing = true;
+                    break;
+                case "arrive":
+                    departing = false;
+                    break;
+                case "date":
+                    String date = createDate(attributes);
+                    if(departing) departDate = date;
+                    else arriveDate = date;
+                    break;
+                case "time":
+                    String time = createTime(attributes);
+                    if(departing) departTime = time;
+                    else arriveTime = time;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (qName) {
+                case "name":
+                    airline = new Airline(text.toString());
+                    break;
+                case "number":
+                    number = text.toString();
+                    break;
+                case "src":
+                    src = text.toString();
+                    break;
+                case "dest":
+                    dest = text.toString();
+                    break;
+                case "flight":
+                    addFlight();
+                    break;
+                default:
+                    break;
+            }
+            text.setLength(0);
+        }
+
+        /**
+         * Builds the flight that was just read
+         * @throws InvalidFlightException when the flight information is invalid
+         * */
+        private void addFlight() throws InvalidFlightException {
+            Flight fl = new Flight(number,src,departDate,departTime,dest,arriveDate,arriveTime,true);
+            if(fl.getError().length()!=0){
+                err.append("Flight information for the number ");
+                err.append(flights.size() + 1);
+                err.append(" of XML content does not conform to the DTD: ");
+                err.append(fl.getError());
+                throw new InvalidFlightException(err.toString());
+            }
+            flights.add(fl);
+        }
+
+        /**
+         * @param date attributes of a date element
+         * @return String object with the date in MM/DD/YYYY format
+         * */
+        private String createDate(Attributes date){
+            return date.getValue("month") + "/" + date.getValue("day") + "/" + date.getValue("year");
+        }
+
+        /**
+         * @param time attributes of a time element
+         * @return String object with the time in 24hr HH:MM format
+         * */
+        private String createTime(Attributes time){
+            int minute = Integer.parseInt(time.getValue("minute"));
+            StringBuilder sb = new StringBuilder(time.getValue("hour")).append(':');
+            if(minute<10) sb.append('0');
+            sb.append(minute);
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * The {code TextDumper} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineDumper;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * <code>TextDumper</code> class for Project 5.
+ * Writes an airline in the txt format of the airline project, read back by {@link TextParser}:
+ * the airline name on the first line, then one flight per line.
+ * It is the compact body of a batch of flights posted to {@link AirlineServlet}.
+ */
+public class TextDumper implements AirlineDumper<Airline> {
+  private final Writer writer;
+
+  public TextDumper(Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * @param airline Accepts an airline object and dumps the airline and its flight information
+   * */
+  @Override
+  public void dump(Airline airline) {
+    dump(airline.getName(), airline.getFlights());
+  }
+
+  /**
+   * Dumps the given flights under the airline name, without building an Airline for them
+   * @param airlineName name of the airline
+   * @param flights flights to write, in the order they are given
+   * */
+  public void dump(String airlineName, Collection<Flight> flights) {
+    PrintWriter pw = new PrintWriter(this.writer);
+    pw.println(airlineName);
+    /*each flight is written with the following format:
+     * FlightNumber DepartureAirportCode DepartureDate DepartureTime ArrivalAirportCode ArrivalDate Arrival Time
+     * */
+    for(Flight f: flights){
+      pw.println(flightLine(f));
+    }
+    pw.flush();
+  }
+
+  /**
+   * @param f flight to be written
+   * @return the line of the flight, without a line break
+   * */
+  static String flightLine(Flight f){
+    return f.getNumber() + " "+f.getSource()+" " +f.getDepDate() +
+            " " +f.getDepTime24()+" "+ f.getDestination() + " " +f.getArrDate() +
+            " " +f.getArrTime24();
+  }
+}
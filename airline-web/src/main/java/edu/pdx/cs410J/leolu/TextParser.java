@@ -0,0 +1,93 @@
+/**
+ * The {code TextParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>TextParser</code> class for Project 5.
+ * Reads the txt format written by {@link TextDumper}: the airline name on the first line,
+ * then one flight per line,
+ * flight number, departure, departure date, departure time, arrival, arrival date, arrival time
+ * with 24 hr times. Every line is checked before the airline is built, and the lines
+ * with invalid flights are all reported, so a whole batch can be corrected at once.
+ */
+public class TextParser implements AirlineParser<Airline> {
+  private static final int FIELDS = 7;
+  private static final int MAX_REPORTED_ERRORS = 10;
+
+  private final Reader reader;
+  private StringBuilder err = new StringBuilder();
+
+  /**
+   * Constructor
+   * @param reader An initialized Reader with the content for parsing
+   * */
+  public TextParser(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * @return Airline object with every flight when all lines are valid
+   * @return null when any flight information is invalid, see {@link #getErrorMsg()}
+   * @throws ParserException if the content can not be read or has no airline name
+   * */
+  public Airline parse() throws ParserException {
+    try (BufferedReader lines = new BufferedReader(this.reader)) {
+      String name = lines.readLine();
+      if (name == null || name.trim().isEmpty()) {
+        throw new ParserException("Missing airline name");
+      }
+      List<Flight> flights = new ArrayList<>();
+      int lineNumber = 1, invalid = 0;
+      String line;
+      while ((line = lines.readLine()) != null) {
+        ++lineNumber;
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) continue; //ignore empty lines
+        String[] s = trimmed.split("\\s+");
+        String error;
+        if (s.length != FIELDS) {
+          error = "expected " + FIELDS + " fields but found " + s.length;
+        } else {
+          Flight fl = new Flight(s[0], s[1], s[2], s[3], s[4], s[5], s[6], true);
+          error = fl.getError();
+          if (error.isEmpty()) {
+            flights.add(fl);
+            continue;
+          }
+        }
+        if (++invalid <= MAX_REPORTED_ERRORS) {
+          err.append("Flight information in line ").append(lineNumber).append(" is invalid, ").append(error).append('\n');
+        }
+      }
+      if (invalid > MAX_REPORTED_ERRORS) {
+        err.append("and ").append(invalid - MAX_REPORTED_ERRORS).append(" more invalid lines\n");
+      }
+      if (invalid > 0) return null;
+      Airline airline = new Airline(name.trim());
+      airline.addFlights(flights);//sorts once instead of once per flight
+      return airline;
+    } catch (IOException e) {
+      throw new ParserException("Flights could not be read: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return String of the invalid lines found by {@link #parse()}
+   * */
+  public String getErrorMsg() {
+    return err.toString();
+  }
+}
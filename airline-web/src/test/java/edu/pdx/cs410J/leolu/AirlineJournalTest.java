@@ -0,0 +1,204 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link AirlineJournal} class, through a durable {@link AirlineRepository}
+ */
+public class AirlineJournalTest {
+
+    @TempDir
+    File dir;
+
+    private static Flight flight(int number){
+        return new Flight(Integer.toString(number),"PDX","01/23/2023","10:40 am","SEA","01/23/2023","11:40 am");
+    }
+
+    @Test
+    void airlinesAreRecoveredAfterClose() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir);
+        airlines.addFlight("EVA Air", flight(26));
+        airlines.addFlight("EVA Air", flight(27));
+        airlines.close();
+
+        Airline recovered = AirlineRepository.durable(dir).get("EVA Air");
+        assertThat(recovered.getFlights().toString(), equalTo(List.of(flight(26), flight(27)).toString()));
+        assertThat(recovered.getFlights().iterator().next().getFlightDuration(), equalTo(60));
+    }
+
+    @Test
+    void logIsReplayedWhenRepositoryWasNotClosed() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir);
+        airlines.addFlight("EVA Air", flight(26));
+        Airline put = new Airline("Alaska");
+        put.addFlight(flight(1));
+        airlines.put(put);
+
+        AirlineRepository recovered = AirlineRepository.durable(dir);
+        assertThat(recovered.get("EVA Air").getFlights().size(), equalTo(1));
+        assertThat(recovered.get("Alaska").getFlights().size(), equalTo(1));
+    }
+
+    @Test
+    void incompleteRecordAtEndOfLogIsIgnored() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir);
+        airlines.addFlight("EVA Air", flight(26));
+        try (FileOutputStream log = new FileOutputStream(new File(dir, "log-1.dat"), true)) {
+            log.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+        AirlineRepository recovered = AirlineRepository.durable(dir);
+        assertThat(recovered.get("EVA Air").getFlights().size(), equalTo(1));
+        recovered.addFlight("EVA Air", flight(27));
+        assertThat(AirlineRepository.durable(dir).get("EVA Air").getFlights().size(), equalTo(2));
+    }
+
+    @Test
+    void batchOfFlightsIsRecovered() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir);
+        airlines.addFlight("EVA Air", flight(1));
+        airlines.addFlights("EVA Air", List.of(flight(26), flight(27), flight(28)));
+
+        Airline recovered = AirlineRepository.durable(dir).get("EVA Air");
+        assertThat(recovered.getFlights().size(), equalTo(4));
+    }
+
+    @Test
+    void columnarRepositoryRecoversColumnarAirlines() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir, true);
+        airlines.addFlight("EVA Air", flight(26));
+        airlines.close();
+
+        Airline recovered = AirlineRepository.durable(dir, true).get("EVA Air");
+        assertThat(recovered.isColumnar(), equalTo(true));
+        assertThat(recovered.getFlights().toString(), equalTo(List.of(flight(26)).toString()));
+    }
+
+    @Test
+    void offHeapRepositoryRecoversOffHeapAirlines() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir, Airline.FlightStorage.OFF_HEAP);
+        airlines.addFlight("EVA Air", flight(26));
+        airlines.close();
+
+        Airline recovered = AirlineRepository.durable(dir, Airline.FlightStorage.OFF_HEAP).get("EVA Air");
+        assertThat(recovered.getFlightStorage(), equalTo(Airline.FlightStorage.OFF_HEAP));
+        assertThat(recovered.getFlights().toString(), equalTo(List.of(flight(26)).toString()));
+    }
+
+    @Test
+    void journalRefusesChangesOnceTheLogCouldNotBeForced() throws IOException {
+        AtomicBoolean diskFull = new AtomicBoolean();
+        AirlineRepository airlines = AirlineRepository.durable(dir, 100, channel -> {
+            if (diskFull.get()) throw new IOException("No space left on device");
+            channel.force(false);
+        });
+        airlines.addFlight("EVA Air", flight(26));
+        diskFull.set(true);
+        RuntimeException failed = assertThrows(RuntimeException.class, () -> airlines.addFlight("EVA Air", flight(27)));
+        assertThat(failed.getCause().getMessage(), equalTo("No space left on device"));
+
+        diskFull.set(false);
+        RuntimeException refused = assertThrows(RuntimeException.class, () -> airlines.addFlight("Alaska", flight(1)));
+        assertThat(refused.getCause().getCause(), sameInstance(failed.getCause()));
+        assertThat(airlines.contains("Alaska"), equalTo(false));
+        assertThrows(IOException.class, airlines::close);
+        assertThat(dir.list(), arrayContaining("log-1.dat"));
+    }
+
+    @Test
+    void journalRefusesChangesOnceARecordCouldNotBeWritten() throws IOException {
+        AtomicBoolean diskFull = new AtomicBoolean();
+        AirlineRepository airlines = AirlineRepository.durable(dir, 100, new AirlineJournal.LogSync() {
+            @Override
+            public void force(FileChannel channel) throws IOException {
+                channel.force(false);
+            }
+
+            @Override
+            public OutputStream stream(FileOutputStream file) {
+                return new FilterOutputStream(file) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        if (diskFull.get()) throw new IOException("No space left on device");
+                        out.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        if (diskFull.get()) throw new IOException("No space left on device");
+                        out.write(b, off, len);
+                    }
+                };
+            }
+        });
+        airlines.addFlight("EVA Air", flight(26));
+        diskFull.set(true);
+        RuntimeException failed = assertThrows(RuntimeException.class, () -> airlines.addFlight("EVA Air", flight(27)));
+        assertThat(failed.getCause().getMessage(), equalTo("No space left on device"));
+
+        diskFull.set(false);
+        RuntimeException refused = assertThrows(RuntimeException.class, () -> airlines.addFlight("Alaska", flight(1)));
+        assertThat(refused.getCause().getCause(), sameInstance(failed.getCause()));
+        assertThat(AirlineRepository.durable(dir).get("EVA Air").getFlights().size(), equalTo(1));
+    }
+
+    @Test
+    void clearIsDurable() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir);
+        airlines.addFlight("EVA Air", flight(26));
+        airlines.clear();
+        airlines.addFlight("Alaska", flight(1));
+
+        AirlineRepository recovered = AirlineRepository.durable(dir);
+        assertThat(recovered.contains("EVA Air"), equalTo(false));
+        assertThat(recovered.contains("Alaska"), equalTo(true));
+    }
+
+    @Test
+    void snapshotReplacesOlderLogs() throws IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir, 10);
+        for(int i=1; i<=25; i++) airlines.addFlight("EVA Air", flight(i));
+        airlines.close();
+
+        String[] files = dir.list();
+        assertThat(files.length, equalTo(2));
+        String snapshot = files[0].startsWith("snapshot-") ? files[0] : files[1];
+        String log = files[0].startsWith("log-") ? files[0] : files[1];
+        assertThat(snapshot.substring("snapshot-".length()), equalTo(log.substring("log-".length())));
+        assertThat(AirlineRepository.durable(dir).get("EVA Air").getFlights().size(), equalTo(25));
+    }
+
+    @Test
+    void concurrentWritersAreAllDurable() throws InterruptedException, ExecutionException, IOException {
+        AirlineRepository airlines = AirlineRepository.durable(dir, 100);
+        int writers = 8, flightsPerWriter = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> results = new ArrayList<>();
+        for(int w=0; w<writers; w++){
+            String airlineName = "Airline " + (w % 2);
+            results.add(pool.submit(() -> {
+                for(int i=1; i<=flightsPerWriter; i++) airlines.addFlight(airlineName, flight(i));
+                return null;
+            }));
+        }
+        for(Future<?> result: results) result.get();
+        pool.shutdown();
+        airlines.close();
+
+        AirlineRepository recovered = AirlineRepository.durable(dir);
+        int expected = writers / 2 * flightsPerWriter;
+        assertThat(recovered.get("Airline 0").getFlights().size(), equalTo(expected));
+        assertThat(recovered.get("Airline 1").getFlights().size(), equalTo(expected));
+    }
+}
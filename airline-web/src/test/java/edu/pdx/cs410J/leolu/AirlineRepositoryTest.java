@@ -0,0 +1,75 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for the {@link AirlineRepository} class
+ */
+public class AirlineRepositoryTest {
+
+    @Test
+    void addingFlightToMissingAirlineCreatesIt(){
+        AirlineRepository airlines = new AirlineRepository();
+        Flight flight = new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm");
+        airlines.addFlight("EVA Air", flight);
+        assertThat(airlines.contains("EVA Air"), equalTo(true));
+        assertThat(airlines.get("EVA Air").getFlights(), contains(flight));
+    }
+
+    @Test
+    void missingAirlineIsNull(){
+        AirlineRepository airlines = new AirlineRepository();
+        assertThat(airlines.get("EVA Air"), nullValue());
+        assertThat(airlines.get(null), nullValue());
+    }
+
+    @Test
+    void concurrentWritersDoNotLoseFlights() throws InterruptedException, ExecutionException {
+        AirlineRepository airlines = new AirlineRepository();
+        int writers = 8, flightsPerWriter = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for(int w=0; w<writers; w++){
+            String airlineName = "Airline " + (w % 2);
+            results.add(pool.submit(() -> {
+                start.await();
+                for(int i=1; i<=flightsPerWriter; i++){
+                    airlines.addFlight(airlineName, new Flight(Integer.toString(i),"PDX","01/23/2023",
+                            "10:40 am","SEA","01/23/2023", "11:40 am"));
+                }
+                return null;
+            }));
+        }
+        results.add(pool.submit(() -> {
+            start.await();
+            for(int i=0; i<flightsPerWriter; i++){
+                Airline airline = airlines.get("Airline 0");
+                if(airline != null) for(Flight fl: airline.getFlights()) fl.getNumber();
+            }
+            return null;
+        }));
+        start.countDown();
+        for(Future<?> result: results) result.get();
+        pool.shutdown();
+
+        int expected = writers / 2 * flightsPerWriter;
+        assertThat(airlines.get("Airline 0").getFlights().size(), equalTo(expected));
+        assertThat(airlines.get("Airline 1").getFlights().size(), equalTo(expected));
+    }
+
+    @Test
+    void clearRemovesEveryAirline(){
+        AirlineRepository airlines = new AirlineRepository();
+        airlines.put(new Airline("EVA Air"));
+        airlines.clear();
+        assertThat(airlines.contains("EVA Air"), equalTo(false));
+    }
+}
@@ -3,13 +3,39 @@ package edu.pdx.cs410J.leolu;
 import edu.pdx.cs410J.ParserException;
 import edu.pdx.cs410J.web.HttpRequestHelper;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static edu.pdx.cs410J.web.HttpRequestHelper.Response;
@@ -43,6 +69,276 @@ public class AirlineRestClientTest {
     client.addFlightToAirline(flightInfo);
   }
 */
+  @Test
+  void getFlightsReadsEveryPage() {
+    Airline airline = new Airline("EVA Air");
+    for(int i=1; i<=5; i++){
+      airline.addFlight(new Flight(Integer.toString(i),"SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    }
+    airline.addFlight(new Flight("6","PDX","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+
+    HttpClient http = mock(HttpClient.class);
+    when(http.sendAsync(any(), any())).thenAnswer(invocation -> {
+      Map<String, String> params = paramsOf(invocation.getArgument(0));
+      List<Flight> flights = airline.getFlights();
+      String cursor = params.get(AirlineServlet.CURSOR_PARAM);
+      int start = cursor == null ? 0 : FlightCursor.parse(cursor).startIndex(flights);
+      int limit = Integer.parseInt(params.get(AirlineServlet.LIMIT_PARAM));
+      StringWriter writer = new StringWriter();
+      new StreamingXmlDumper(writer).dump(airline.getName(), flights.subList(start, Math.min(flights.size(), start + limit)));
+      return CompletableFuture.completedFuture(responseOf(200, HttpHeaders.of(Map.of(), (name, value) -> true),
+              writer.toString().getBytes(StandardCharsets.US_ASCII)));
+    });
+
+    List<Flight> read = new ArrayList<>();
+    for(Flight fl: new AirlineRestClient(http, "http://localhost:8080/airline/flights").getFlights("EVA Air", null, null, 2)) read.add(fl);
+    assertThat(read.toString(), equalTo(airline.getFlights().toString()));
+    verify(http, times(4)).sendAsync(any(), any());
+  }
+
+  @Test
+  void getAirlineBlocksOnTheNegotiatedGet() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    StringWriter writer = new StringWriter();
+    new JsonDumper(writer).dump(airline);
+    HttpClient http = asyncAnswering(200, "application/json;charset=utf-8", writer.toString());
+
+    AirlineRestClient client = new AirlineRestClient(http, "http://localhost:8080/airline/flights");
+    Airline read = client.getAirline("EVA Air", "SEA", "JFK");
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+    ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(http).sendAsync(request.capture(), any());
+    assertThat(request.getValue().headers().firstValue("Accept").get(), equalTo(AirlineServlet.JSON_TYPE));
+    assertThat(paramsOf(request.getValue()), equalTo(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, "EVA Air",
+            AirlineServlet.SOURCE_PARAM, "SEA", AirlineServlet.DESTINATION_PARAM, "JFK")));
+  }
+
+  @Test
+  void getAirlinePageThrowsTheRestExceptionOfTheGet() {
+    AirlineRestClient client = new AirlineRestClient(asyncAnswering(404, "HTTP 404 | Airline name was not found: EVA Air"),
+            "http://localhost:8080/airline/flights");
+    assertThrows(HttpRequestHelper.RestException.class, () -> client.getAirlinePage("EVA Air", null, null, 10, null));
+    assertThat(client.getAirline("EVA Air", null, null), equalTo(null));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void addFlightsToAirlineSendsFlightsInBatches() throws Exception {
+    List<Flight> flights = new ArrayList<>();
+    for(int i=1; i<=5; i++){
+      flights.add(new Flight(Integer.toString(i),"SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    }
+    List<Airline> batches = new ArrayList<>();
+    HttpClient http = mock(HttpClient.class);
+    when(http.send(any(), any())).thenAnswer(invocation -> {
+      HttpRequest request = invocation.getArgument(0);
+      Airline batch = new TextParser(new StringReader(bodyOf(request))).parse();
+      batches.add(batch);
+      HttpResponse<String> response = mock(HttpResponse.class);
+      when(response.statusCode()).thenReturn(201);
+      when(response.body()).thenReturn(AirlineServlet.BATCH_ADDED + "=" + batch.getFlights().size() + "\n");
+      return response;
+    });
+    AirlineRestClient client = new AirlineRestClient(http, "http://localhost:8080/airline/flights");
+
+    assertThat(client.addFlightsToAirline("EVA Air", flights, 2), equalTo(5));
+    assertThat(batches.size(), equalTo(3));
+    assertThat(batches.get(2).getName(), equalTo("EVA Air"));
+    assertThat(batches.get(2).getFlights().toString(), equalTo(flights.subList(4, 5).toString()));
+    ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(http, times(3)).send(requests.capture(), any());
+    assertThat(requests.getValue().method(), equalTo("POST"));
+    assertThat(requests.getValue().uri().toString(), equalTo("http://localhost:8080/airline/flights?airline=EVA+Air"));
+  }
+
+  @Test
+  void getAirlineAsyncParsesTheStreamedBody() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    airline.addFlight(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    StringWriter writer = new StringWriter();
+    new StreamingXmlDumper(writer).dump(airline);
+
+    AirlineRestClient client = new AirlineRestClient(asyncAnswering(200, writer.toString()), "http://localhost:8080/airline/flights");
+    Airline read = client.getAirlineAsync("EVA Air", null, null).get();
+    assertThat(read.getName(), equalTo("EVA Air"));
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+  }
+
+  @Test
+  void getAirlineAsyncDecodesJsonByItsContentType() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    airline.addFlight(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    StringWriter writer = new StringWriter();
+    new JsonDumper(writer).dump(airline);
+
+    AirlineRestClient client = new AirlineRestClient(asyncAnswering(200, "application/json;charset=utf-8", writer.toString()),
+            "http://localhost:8080/airline/flights");
+    Airline read = client.getAirlineAsync("EVA Air", null, null).get();
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+  }
+
+  @Test
+  void getAirlineAsyncDecompressesAGzipBody() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    AirlineRestClient client = new AirlineRestClient(gzipAnswering(airline), "http://localhost:8080/airline/flights");
+    Airline read = client.getAirlineAsync("EVA Air", null, null).get();
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+  }
+
+  @Test
+  void getAirlineAsksForAndDecompressesAGzipBody() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    HttpClient http = gzipAnswering(airline);
+    AirlineRestClient client = new AirlineRestClient(http, "http://localhost:8080/airline/flights");
+    Airline read = client.getAirline("EVA Air", null, null);
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+    ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(http).sendAsync(request.capture(), any());
+    assertThat(request.getValue().headers().firstValue("Accept-Encoding").get(), equalTo("gzip, deflate"));
+  }
+
+  @Test
+  void getAirlineAsyncAnswersFromItsCopyWhenNotModified() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    String tag = "W/\"1f-1-json\"";
+    HttpClient http = taggedThenNotModified(airline, tag);
+    AirlineRestClient client = new AirlineRestClient(http, "http://localhost:8080/airline/flights");
+    Airline first = client.getAirlineAsync("EVA Air", null, null).get();
+    Airline second = client.getAirlineAsync("EVA Air", null, null).get();
+
+    assertThat(second, sameInstance(first));
+    ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(http, times(2)).sendAsync(requests.capture(), any());
+    assertThat(requests.getAllValues().get(0).headers().firstValue("If-None-Match").isPresent(), equalTo(false));
+    assertThat(requests.getAllValues().get(1).headers().firstValue("If-None-Match").get(), equalTo(tag));
+  }
+
+  @Test
+  void pollingGetAirlineIsAnsweredFromItsCopyWhenNotModified() throws Exception {
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    String tag = "W/\"1f-1-json\"";
+    HttpClient http = taggedThenNotModified(airline, tag);
+    AirlineRestClient client = new AirlineRestClient(http, "http://localhost:8080/airline/flights");
+    Airline first = client.getAirline("EVA Air", null, null);
+    Airline second = client.getAirline("EVA Air", null, null);
+
+    assertThat(first.getFlights().toString(), equalTo(airline.getFlights().toString()));
+    assertThat(second, sameInstance(first));
+    ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(http, times(2)).sendAsync(requests.capture(), any());
+    assertThat(requests.getAllValues().get(1).headers().firstValue("If-None-Match").get(), equalTo(tag));
+  }
+
+  @Test
+  void getAirlineAsyncCompletesExceptionallyWhenNotFound() {
+    AirlineRestClient client = new AirlineRestClient(asyncAnswering(404, "HTTP 404 | Airline name was not found: EVA Air"),
+            "http://localhost:8080/airline/flights");
+    ExecutionException e = assertThrows(ExecutionException.class, () -> client.getAirlineAsync("EVA Air", null, null).get());
+    assertThat(e.getCause(), instanceOf(HttpRequestHelper.RestException.class));
+  }
+
+  private HttpClient asyncAnswering(int status, String body) {
+    return asyncAnswering(status, null, body);
+  }
+
+  private HttpClient asyncAnswering(int status, String contentType, String body) {
+    return asyncAnswering(status, HttpHeaders.of(contentType == null ? Map.of() : Map.of("Content-Type", List.of(contentType)),
+            (name, value) -> true), body.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private HttpClient asyncAnswering(int status, HttpHeaders headers, byte[] body) {
+    HttpClient http = mock(HttpClient.class);
+    doReturn(CompletableFuture.completedFuture(responseOf(status, headers, body))).when(http).sendAsync(any(), any());
+    return http;
+  }
+
+  /**
+   * @return a client answering the first request with the airline as JSON tagged with the ETag,
+   * and the second with 304 Not Modified
+   */
+  private HttpClient taggedThenNotModified(Airline airline, String tag) throws IOException {
+    StringWriter writer = new StringWriter();
+    new JsonDumper(writer).dump(airline);
+    HttpClient http = mock(HttpClient.class);
+    HttpHeaders tagged = HttpHeaders.of(Map.of("Content-Type", List.of("application/json;charset=utf-8"),
+            "ETag", List.of(tag)), (name, value) -> true);
+    doReturn(CompletableFuture.completedFuture(responseOf(200, tagged, writer.toString().getBytes(StandardCharsets.UTF_8))),
+            CompletableFuture.completedFuture(responseOf(304, tagged, new byte[0])))
+            .when(http).sendAsync(any(), any());
+    return http;
+  }
+
+  /**
+   * @return a client answering every request with the airline as gzip compressed JSON
+   */
+  private HttpClient gzipAnswering(Airline airline) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try(Writer writer = new OutputStreamWriter(new GZIPOutputStream(body), StandardCharsets.UTF_8)){
+      new JsonDumper(writer).dump(airline);
+    }
+    HttpHeaders headers = HttpHeaders.of(Map.of("Content-Type", List.of("application/json;charset=utf-8"),
+            "Content-Encoding", List.of("gzip")), (name, value) -> true);
+    return asyncAnswering(200, headers, body.toByteArray());
+  }
+
+  @SuppressWarnings("unchecked")
+  private HttpResponse<InputStream> responseOf(int status, HttpHeaders headers, byte[] body) {
+    HttpResponse<InputStream> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(status);
+    when(response.headers()).thenReturn(headers);
+    when(response.body()).thenReturn(new ByteArrayInputStream(body));
+    return response;
+  }
+
+  /**
+   * @return the parameters of the query string of the request
+   */
+  private static Map<String, String> paramsOf(HttpRequest request) {
+    Map<String, String> params = new HashMap<>();
+    for(String param: request.uri().getRawQuery().split("&")){
+      String[] pair = param.split("=", 2);
+      params.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8), URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
+    }
+    return params;
+  }
+
+  /**
+   * @return the body the request publishes, read to its end
+   */
+  private static String bodyOf(HttpRequest request) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        byte[] bytes = new byte[item.remaining()];
+        item.get(bytes);
+        body.write(bytes, 0, bytes.length);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        throw new AssertionError(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+    return body.toString(StandardCharsets.UTF_8);
+  }
+
   private HttpRequestHelper.Response airlinesAsText(Airline airline) {
     StringWriter writer = new StringWriter();
     new XmlDumper(writer).dump(airline);
@@ -1,20 +1,35 @@
 package edu.pdx.cs410J.leolu;
 
+import edu.pdx.cs410J.ParserException;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -311,6 +326,299 @@ class AirlineServletTest {
             "</airline>\n"));
   }
 
+  @Test
+  void airlineNameIsFlushedBeforeFlightsAreWritten() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    List<String> flushed = new ArrayList<>();
+    PrintWriter pw = new PrintWriter(sw){
+      @Override
+      public void flush(){
+        super.flush();
+        flushed.add(sw.toString());
+      }
+    };
+
+    when(response.getWriter()).thenReturn(pw);
+    when(request.getQueryString()).thenReturn("airline=EVA Air");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    servlet.addAirlineToMap(new Airline("EVA Air",flights));
+    servlet.doGet(request, response);
+
+    InOrder inOrder = inOrder(response);
+    inOrder.verify(response).setStatus(HttpServletResponse.SC_OK);
+    inOrder.verify(response).getWriter();
+    assertThat(flushed.get(0), endsWith("<name>EVA Air</name>"));
+    assertThat(flushed.get(0), not(containsString("<flight>")));
+    assertThat(sw.toString(), endsWith("</airline>\n"));
+  }
+
+  @Test
+  void limitReturnsFirstPageAndNextCursor() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(sw));
+    when(request.getQueryString()).thenReturn("airline=EVA Air&limit=1");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameter(AirlineServlet.LIMIT_PARAM)).thenReturn("1");
+    when(request.getParameterMap()).thenReturn(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, new String[]{"EVA Air"},
+            AirlineServlet.LIMIT_PARAM, new String[]{"1"}));
+
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    flights.add(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    servlet.addAirlineToMap(new Airline("EVA Air",flights));
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_OK);
+    verify(response).setHeader(AirlineServlet.NEXT_CURSOR_HEADER, "SEA-202301211040-1");
+    assertThat(sw.toString(), containsString("<number>24</number>"));
+    assertThat(sw.toString(), not(containsString("<number>26</number>")));
+  }
+
+  @Test
+  void cursorReturnsFlightsAfterIt() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(sw));
+    when(request.getQueryString()).thenReturn("airline=EVA Air&limit=1&cursor=SEA-202301211040-1");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameter(AirlineServlet.LIMIT_PARAM)).thenReturn("1");
+    when(request.getParameter(AirlineServlet.CURSOR_PARAM)).thenReturn("SEA-202301211040-1");
+
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    flights.add(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    servlet.addAirlineToMap(new Airline("EVA Air",flights));
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_OK);
+    verify(response, never()).setHeader(eq(AirlineServlet.NEXT_CURSOR_HEADER), anyString());
+    assertThat(sw.toString(), containsString("<number>26</number>"));
+    assertThat(sw.toString(), not(containsString("<number>24</number>")));
+  }
+
+  @Test
+  void nonPositiveLimitReturns400() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getQueryString()).thenReturn("airline=EVA Air&limit=0");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameter(AirlineServlet.LIMIT_PARAM)).thenReturn("0");
+    servlet.addNewAirlineToMap("EVA Air");
+
+    servlet.doGet(request, response);
+    verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    assertThat(servlet.errorMsgForTesting,containsString("page limit"));
+  }
+
+  @Test
+  void acceptJsonReturnsCompactJson() throws IOException, ParserException {
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(sw));
+    when(request.getHeader("Accept")).thenReturn("application/json, */*;q=0.5");
+    when(request.getQueryString()).thenReturn("airline=EVA Air");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameterMap()).thenReturn(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, new String[]{"EVA Air"}));
+
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    flights.add(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    Airline airline = new Airline("EVA Air",flights);
+    servlet.addAirlineToMap(airline);
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_OK);
+    verify(response).setContentType("application/json;charset=utf-8");
+    assertThat(sw.toString(), not(containsString("\n")));
+    Airline read = new JsonParser(new StringReader(sw.toString())).parse();
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+  }
+
+  @Test
+  void responseTypeFollowsTheAcceptHeader() {
+    assertThat(AirlineServlet.responseType(null), equalTo(AirlineServlet.XML_TYPE));
+    assertThat(AirlineServlet.responseType("text/plain"), equalTo(AirlineServlet.TEXT_TYPE));
+    assertThat(AirlineServlet.responseType("application/json;q=0.8, text/*;q=0.9"), equalTo(AirlineServlet.TEXT_TYPE));
+    assertThat(AirlineServlet.responseType("*/*, application/xml;q=0"), equalTo(AirlineServlet.JSON_TYPE));
+    assertThat(AirlineServlet.responseType("text/html,application/xml;q=0.9,*/*;q=0.8"), equalTo(AirlineServlet.XML_TYPE));
+  }
+
+  @Test
+  void acceptEncodingGzipCompressesTheResponse() throws IOException, ParserException {
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+      }
+
+      @Override
+      public void write(int b) {
+        body.write(b);
+      }
+    });
+    when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate");
+    when(request.getQueryString()).thenReturn("airline=EVA Air");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameterMap()).thenReturn(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, new String[]{"EVA Air"}));
+
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    flights.add(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    Airline airline = new Airline("EVA Air",flights);
+    servlet.addAirlineToMap(airline);
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_OK);
+    verify(response).setHeader("Content-Encoding", AirlineServlet.GZIP);
+    verify(response, never()).getWriter();
+    Airline read = new StreamingXmlParser(new InputStreamReader(
+            new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())), StandardCharsets.US_ASCII)).parse();
+    assertThat(read.getFlights().toString(), equalTo(airline.getFlights().toString()));
+  }
+
+  @Test
+  void contentCodingFollowsTheAcceptEncodingHeader() {
+    assertThat(AirlineServlet.contentCoding(null), nullValue());
+    assertThat(AirlineServlet.contentCoding("deflate, gzip"), equalTo(AirlineServlet.GZIP));
+    assertThat(AirlineServlet.contentCoding("deflate, gzip;q=0.5"), equalTo(AirlineServlet.DEFLATE));
+    assertThat(AirlineServlet.contentCoding("gzip;q=0.5, identity"), nullValue());
+    assertThat(AirlineServlet.contentCoding("br"), nullValue());
+  }
+
+  @Test
+  void ifNoneMatchWithTheCurrentTagReturns304() throws IOException {
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    servlet.addAirlineToMap(airline);
+    String tag = AirlineServlet.entityTag(airline, AirlineServlet.XML_TYPE);
+    when(request.getHeader("If-None-Match")).thenReturn("W/\"stale\", " + tag);
+    when(request.getQueryString()).thenReturn("airline=EVA Air");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameterMap()).thenReturn(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, new String[]{"EVA Air"}));
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    verify(response).setHeader("ETag", tag);
+    verify(response, never()).getWriter();
+
+    airline.addFlight(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    assertThat(AirlineServlet.entityTag(airline, AirlineServlet.XML_TYPE), not(equalTo(tag)));
+  }
+
+  @Test
+  void departureRangeReturnsFlightsFromSrcDepartingWithinIt() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(sw));
+    when(request.getQueryString()).thenReturn("airline=EVA Air&src=SEA&departAfter=01/21/2023 10:40 am&departBefore=01/23/2023 10:40 am");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameter(AirlineServlet.SOURCE_PARAM)).thenReturn("SEA");
+    when(request.getParameter(AirlineServlet.DEPART_AFTER_PARAM)).thenReturn("01/21/2023 10:40 am");
+    when(request.getParameter(AirlineServlet.DEPART_BEFORE_PARAM)).thenReturn("01/23/2023 10:40 am");
+
+    ArrayList<Flight> flights = new ArrayList<>();
+    flights.add(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+    flights.add(new Flight("25","SEA","01/22/2023", "10:40 am","JFK","01/22/2023", "11:40 pm"));
+    flights.add(new Flight("24","SEA","01/21/2023", "10:40 am","TPE","01/21/2023", "11:40 pm"));
+    flights.add(new Flight("23","SEA","01/20/2023", "10:40 am","TPE","01/20/2023", "11:40 pm"));
+    flights.add(new Flight("22","PDX","01/22/2023", "10:40 am","TPE","01/22/2023", "11:40 pm"));
+    servlet.addAirlineToMap(new Airline("EVA Air",flights));
+    servlet.doGet(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_OK);
+    assertThat(sw.toString(), containsString("<number>24</number>"));
+    assertThat(sw.toString(), containsString("<number>25</number>"));
+    assertThat(sw.toString(), not(containsString("<number>26</number>")));
+    assertThat(sw.toString(), not(containsString("<number>23</number>")));
+    assertThat(sw.toString(), not(containsString("<number>22</number>")));
+  }
+
+  @Test
+  void departureRangeWithoutSrcReturns412() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getQueryString()).thenReturn("airline=EVA Air&departAfter=01/21/2023 10:40 am");
+    when(request.getParameter(AirlineServlet.AIRLINE_NAME_PARAM)).thenReturn("EVA Air");
+    when(request.getParameter(AirlineServlet.DEPART_AFTER_PARAM)).thenReturn("01/21/2023 10:40 am");
+    servlet.addNewAirlineToMap("EVA Air");
+
+    servlet.doGet(request, response);
+    verify(response).setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+  }
+
+  @Test
+  void batchPostAddsEveryFlightOfTheBody() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    StringWriter sw = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(sw));
+    when(request.getContentType()).thenReturn("text/plain;charset=UTF-8");
+    when(request.getReader()).thenReturn(new BufferedReader(new StringReader("EVA Air\n" +
+            "26 SEA 01/23/2023 10:40 JFK 01/23/2023 23:40\n" +
+            "24 SEA 01/21/2023 10:40 TPE 01/21/2023 23:40\n")));
+    servlet.addNewAirlineToMap("EVA Air");
+    servlet.doPost(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_CREATED);
+    assertThat(sw.toString(), containsString(AirlineServlet.BATCH_ADDED + "=2"));
+    List<Flight> flights = servlet.getAirline("EVA Air").getFlights();
+    assertThat(flights.size(), equalTo(2));
+    assertThat(flights.get(0).getNumber(), equalTo(24));
+  }
+
+  @Test
+  void batchPostWithAnInvalidFlightAddsNoFlights() throws IOException{
+    AirlineServlet servlet = new AirlineServlet();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    HttpServletRequest request = mock(HttpServletRequest.class);
+
+    when(request.getContentType()).thenReturn("text/plain");
+    when(request.getReader()).thenReturn(new BufferedReader(new StringReader("EVA Air\n" +
+            "26 SEA 01/23/2023 10:40 JFK 01/23/2023 23:40\n" +
+            "24 XYZ 01/21/2023 10:40 TPE 01/21/2023 23:40\n")));
+    servlet.doPost(request, response);
+
+    verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    assertThat(servlet.errorMsgForTesting, containsString("line 3"));
+    assertThat(servlet.getAirline("EVA Air"), equalTo(null));
+  }
+
   @Test
   void getFilteredFlightsBasedOnSRCAndDESTFromAirline() throws IOException{
     AirlineServlet servlet = new AirlineServlet();
@@ -10,9 +10,11 @@ package edu.pdx.cs410J.leolu;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 
 public class AirlineTest {
 
@@ -30,7 +32,7 @@ public class AirlineTest {
 
     @Test
     void nullFlightsArrayListThrowsNullPointerException(){
-        Airline nullList = new Airline("NullList",null);
+        Airline nullList = new Airline("NullList",(ArrayList<Flight>) null);
         assertThat(nullList.getError(),equalTo("Flight list is null"));
     }
 
@@ -50,4 +52,101 @@ public class AirlineTest {
         assertThat(nullFlight.getError(),equalTo("Null flight found in flights list"));
     }
 
+    @Test
+    void flightsCanBeLookedUpBySourceAndDestination(){
+        Airline airline = new Airline("Routes");
+        airline.addFlight(new Flight("3","PDX","01/24/2023", "10:00 am","SEA","01/24/2023", "11:00 am"));
+        airline.addFlight(new Flight("1","PDX","01/23/2023", "10:00 am","JFK","01/23/2023", "6:00 pm"));
+        airline.addFlight(new Flight("2","PDX","01/23/2023", "8:00 am","SEA","01/23/2023", "9:00 am"));
+        List<Flight> pdxToSea = airline.getFlights("PDX","SEA");
+        assertThat(pdxToSea.size(),equalTo(2));
+        assertThat(pdxToSea.get(0).getNumber(),equalTo(2));
+        assertThat(pdxToSea.get(1).getNumber(),equalTo(3));
+        assertThat(airline.getFlights("SEA","PDX"),empty());
+    }
+
+    @Test
+    void columnarAirlineReadsTheSameFlightsAsAnAirlineOfFlights(){
+        List<Flight> flights = new ArrayList<>();
+        flights.add(new Flight("3","PDX","01/24/2023", "10:00 am","SEA","01/24/2023", "11:00 am"));
+        flights.add(new Flight("1","PDX","01/23/2023", "10:00 am","JFK","01/23/2023", "6:00 pm"));
+        flights.add(new Flight("4","SEA","01/23/2023", "10:00 am","PDX","01/23/2023", "11:00 am"));
+        flights.add(new Flight("2","PDX","01/23/2023", "10:00 am","SEA","01/23/2023", "11:00 am"));
+        Airline airline = new Airline("Objects");
+        Airline columnar = new Airline("Columns", true);
+        airline.addFlight(flights.get(0));
+        columnar.addFlight(flights.get(0));
+        airline.addFlights(flights.subList(1, 4));
+        columnar.addFlights(flights.subList(1, 4));
+
+        assertThat(columnar.isColumnar(),equalTo(true));
+        assertThat(columnar.getFlights().toString(),equalTo(airline.getFlights().toString()));
+        assertThat(columnar.getFlights("PDX","SEA").toString(),equalTo(airline.getFlights("PDX","SEA").toString()));
+        assertThat(columnar.getFlights().get(0).getFlightDuration(),equalTo(480));
+    }
+
+    @Test
+    void offHeapAirlineReadsTheSameFlightsAsAnAirlineOfFlights(){
+        Airline airline = new Airline("Objects");
+        Airline offHeap = new Airline("Off Heap", Airline.FlightStorage.OFF_HEAP);
+        for(int i = 20; i > 0; i--){
+            Flight flight = new Flight(String.valueOf(i), i % 2 == 0 ? "PDX" : "SEA", "01/23/2023", i % 12 + 1 + ":00 pm",
+                    i % 3 == 0 ? "JFK" : "LAX", "01/24/2023", "6:00 am");
+            airline.addFlight(flight);
+            offHeap.addFlight(flight);
+        }
+        airline.addFlights(airline.getFlights().subList(0, 5));
+        offHeap.addFlights(offHeap.getFlights().subList(0, 5));
+
+        assertThat(offHeap.isColumnar(),equalTo(true));
+        assertThat(offHeap.getFlightStorage(),equalTo(Airline.FlightStorage.OFF_HEAP));
+        assertThat(offHeap.getFlights().size(),equalTo(25));
+        assertThat(offHeap.getFlights().toString(),equalTo(airline.getFlights().toString()));
+        assertThat(offHeap.getFlights("PDX","JFK").toString(),equalTo(airline.getFlights("PDX","JFK").toString()));
+    }
+
+    @Test
+    void offHeapAirlineKeepsFlightsAddedOutOfOrderSorted(){
+        Airline airline = new Airline("Objects");
+        Airline offHeap = new Airline("Off Heap", Airline.FlightStorage.OFF_HEAP);
+        String[] airports = {"SEA", "PDX", "LAX"};
+        for(int i = 1; i <= FlightColumns.MAX_PENDING * 2 + 50; i++){
+            Flight flight = new Flight(String.valueOf(i), airports[i % 3], "01/" + (10 + i % 19) + "/2023", i % 12 + 1 + ":00 pm",
+                    airports[(i + 1) % 3], "02/01/2023", "6:00 am");
+            airline.addFlight(flight);
+            offHeap.addFlight(flight);
+            if(i == FlightColumns.MAX_PENDING / 2){
+                assertThat(offHeap.getFlights().toString(),equalTo(airline.getFlights().toString()));
+                assertThat(offHeap.getFlights("PDX","LAX").toString(),equalTo(airline.getFlights("PDX","LAX").toString()));
+            }
+        }
+        airline.addFlights(airline.getFlights().subList(0, 5));
+        offHeap.addFlights(offHeap.getFlights().subList(0, 5));
+
+        assertThat(offHeap.getFlights().toString(),equalTo(airline.getFlights().toString()));
+        assertThat(offHeap.getFlights("PDX","LAX").toString(),equalTo(airline.getFlights("PDX","LAX").toString()));
+    }
+
+    @Test
+    void versionIncreasesWithEveryChangeToTheFlights(){
+        Airline airline = new Airline("EVA Air");
+        assertThat(airline.getVersion(),equalTo(0L));
+        airline.addFlight(new Flight("1","PDX","01/23/2023", "10:00 am","SEA","01/23/2023", "11:00 am"));
+        assertThat(airline.getVersion(),equalTo(1L));
+        airline.addFlights(List.of(new Flight("2","PDX","01/23/2023", "8:00 am","SEA","01/23/2023", "9:00 am"),
+                new Flight("3","SEA","01/23/2023", "8:00 am","PDX","01/23/2023", "9:00 am")));
+        assertThat(airline.getVersion(),equalTo(2L));
+        airline.addFlight(null);
+        airline.addFlights(List.of());
+        assertThat(airline.getVersion(),equalTo(2L));
+    }
+
+    @Test
+    void addingIncompleteFlightToColumnarAirlineIsRejected(){
+        Airline columnar = new Airline("Columns", true);
+        columnar.addFlight(new Flight("1","PDX","01/23/2023", "10:00 am","XYZ","01/23/2023", "6:00 pm"));
+        assertThat(columnar.getFlights(),empty());
+        assertThat(columnar.getError(),equalTo("Cannot add a flight without both airports and datetimes to a columnar airline!"));
+    }
+
 }
@@ -0,0 +1,71 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link FlightCursor} class
+ */
+public class FlightCursorTest {
+
+    private static Flight flight(String number, String src, String time){
+        return new Flight(number, src, "01/23/2023", time, "SEA", "01/23/2023", "11:40 pm");
+    }
+
+    /**
+     * Reads every page of the sorted flights the same way the servlet and client do
+     * */
+    private static List<Flight> readInPages(List<Flight> flights, int limit){
+        List<Flight> read = new ArrayList<>();
+        FlightCursor cursor = null;
+        while(true){
+            int start = cursor == null ? 0 : cursor.startIndex(flights);
+            List<Flight> page = flights.subList(start, Math.min(flights.size(), start + limit));
+            read.addAll(page);
+            if(page.size() < limit) return read;
+            cursor = FlightCursor.parse(FlightCursor.after(cursor, page).toString());
+        }
+    }
+
+    @Test
+    void pagesWithTiesReadEveryFlightOnce(){
+        Airline airline = new Airline("EVA Air");
+        for(int i=1; i<=7; i++) airline.addFlight(flight(Integer.toString(i), "PDX", "10:40 am"));
+        airline.addFlight(flight("8", "PDX", "11:40 am"));
+        airline.addFlight(flight("9", "JFK", "10:40 am"));
+        List<Flight> flights = airline.getFlights();
+        for(int limit=1; limit<=10; limit++){
+            assertThat(readInPages(flights, limit).toString(), equalTo(flights.toString()));
+        }
+    }
+
+    @Test
+    void flightsAddedBeforeCursorDoNotShiftNextPage(){
+        Airline airline = new Airline("EVA Air");
+        airline.addFlight(flight("1", "PDX", "10:40 am"));
+        airline.addFlight(flight("2", "SEA", "10:40 am"));
+        FlightCursor cursor = FlightCursor.after(null, airline.getFlights().subList(0, 1));
+        airline.addFlight(flight("3", "JFK", "10:40 am"));
+        List<Flight> flights = airline.getFlights();
+        assertThat(flights.get(cursor.startIndex(flights)).getNumber(), equalTo(2));
+    }
+
+    @Test
+    void cursorIsWrittenAsCodeDepartureAndCount(){
+        List<Flight> page = List.of(flight("1", "PDX", "10:40 am"));
+        assertThat(FlightCursor.after(null, page).toString(), equalTo("PDX-202301231040-1"));
+    }
+
+    @Test
+    void malformedCursorIsRejected(){
+        assertThrows(IllegalArgumentException.class, () -> FlightCursor.parse("PDX-2023-1"));
+        assertThrows(IllegalArgumentException.class, () -> FlightCursor.parse("XXX-202301231040-1"));
+        assertThrows(IllegalArgumentException.class, () -> FlightCursor.parse("PDX-202301231040-0"));
+    }
+}
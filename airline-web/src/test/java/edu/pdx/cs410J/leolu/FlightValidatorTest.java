@@ -0,0 +1,18 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FlightValidatorTest {
+
+    @Test
+    void requestDatetimesNeedSingleSpacesAndAMeridiem(){
+        assertThat(FlightValidator.isValidDateTime12("01/22/2023 10:40 am"), equalTo(true));
+        assertThat(FlightValidator.isValidDateTime12("1/22/2023 3:40 PM"), equalTo(true));
+        assertThat(FlightValidator.isValidDateTime12("01/22/2023 10:40 m"), equalTo(false));
+        assertThat(FlightValidator.isValidDateTime12("01/22/2023 10:40pm"), equalTo(false));
+        assertThat(FlightValidator.isValidDateTime12("01/22/2023  10:40 pm"), equalTo(false));
+    }
+}
@@ -0,0 +1,60 @@
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonParserTest {
+
+    @Test
+    void dumpedAirlineCanBeParsed() throws ParserException {
+        Airline airline = new Airline("EVA \"Air\"");
+        airline.addFlight(new Flight("26","SEA","01/23/2023", "10:40 am","JFK","01/23/2023", "11:40 pm"));
+        airline.addFlight(new Flight("24","PDX","01/21/2023", "10:40 am","TPE","01/22/2023", "1:05 am"));
+        StringWriter writer = new StringWriter();
+        new JsonDumper(writer).dump(airline);
+
+        assertThat(writer.toString(), containsString("{\"number\":24,\"src\":\"PDX\",\"depart\":\"2023-01-21T10:40\",\"dest\":\"TPE\",\"arrive\":\"2023-01-22T01:05\"}"));
+        Airline parsed = new JsonParser(new StringReader(writer.toString())).parse();
+        assertThat(parsed.getName(), equalTo(airline.getName()));
+        assertThat(parsed.getFlights().toString(), equalTo(airline.getFlights().toString()));
+    }
+
+    @Test
+    void flightArrivingBeforeItDepartsIsInvalid() throws ParserException {
+        JsonParser parser = new JsonParser(new StringReader("{\"name\":\"EVA Air\",\"flights\":[{\"number\":26,\"src\":\"PDX\"," +
+                "\"depart\":\"2023-01-23T10:40\",\"dest\":\"SEA\",\"arrive\":\"2023-01-22T10:40\"}]}"));
+        assertThat(parser.parse(), nullValue());
+        assertThat(parser.getErrorMsg(), containsString("arrival is not after departure"));
+    }
+
+    @Test
+    void flightArrivingWhenItDepartsIsInvalid() throws ParserException {
+        JsonParser parser = new JsonParser(new StringReader("{\"name\":\"EVA Air\",\"flights\":[{\"number\":26,\"src\":\"PDX\"," +
+                "\"depart\":\"2023-01-23T10:40\",\"dest\":\"SEA\",\"arrive\":\"2023-01-23T10:40\"}]}"));
+        assertThat(parser.parse(), nullValue());
+        assertThat(parser.getErrorMsg(), containsString("arrival is not after departure"));
+    }
+
+    @Test
+    void flightWithUnknownAirportCodeIsInvalid() throws ParserException {
+        JsonParser parser = new JsonParser(new StringReader("{\"name\":\"EVA Air\",\"flights\":[{\"number\":26,\"src\":\"ZZZ\"," +
+                "\"depart\":\"2023-01-23T10:40\",\"dest\":\"SEA\",\"arrive\":\"2023-01-23T11:40\"}]}"));
+        assertThat(parser.parse(), nullValue());
+        assertThat(parser.getErrorMsg(), containsString("both airport codes must be real airport codes"));
+    }
+
+    @Test
+    void malformedJsonCantBeParsed() {
+        JsonParser parser = new JsonParser(new StringReader("{\"name\":\"EVA Air\""));
+        assertThrows(ParserException.class, parser::parse);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.pdx.cs410J.leolu;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingXmlDumperTest {
+
+    private Airline testAirline(){
+        Airline airline = new Airline("Test Airline");
+        airline.addFlight(new Flight("26","SEA","01/23/2023","12:40 pm","SFO","01/23/2023", "3:40 pm"));
+        airline.addFlight(new Flight("27","SEA","01/23/2023","22:40","PDX","01/23/2023", "23:40", true));
+        return airline;
+    }
+
+    @Test
+    void streamedXMLMatchesDomXML(){
+        StringWriter dom = new StringWriter();
+        new XmlDumper(dom).dump(testAirline());
+        StringWriter streamed = new StringWriter();
+        new StreamingXmlDumper(streamed).dump(testAirline());
+        assertThat(streamed.toString(), equalTo(dom.toString()));
+    }
+
+    @Test
+    void nonAsciiAirlineNameIsWrittenAsCharacterReference(){
+        StringWriter streamed = new StringWriter();
+        new StreamingXmlDumper(streamed).dump(new Airline("Caf\u00e9 Air"));
+        assertThat(streamed.toString(), containsString("<name>Caf&#233; Air</name>"));
+    }
+
+    @Test
+    void nullAirlineInDumpPrintsErrorToSystemErr(){
+        StreamingXmlDumper dumper = new StreamingXmlDumper(new StringWriter());
+        dumper.dump(null);
+        assertThat(dumper.getErrorMsg(),containsString("does not accept null for airline object!"));
+    }
+
+    @Test
+    void badFilePathDumpThrowsRuntimeException(){
+        StreamingXmlDumper dumper = new StreamingXmlDumper("ources/edu/pdx/cs410J/leolu/first-airline.xml");
+        assertThrows(RuntimeException.class,()->dumper.dump(testAirline()));
+    }
+}
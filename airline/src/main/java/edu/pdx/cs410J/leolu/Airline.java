@@ -8,6 +8,9 @@
  * an airline to be created with a List of existing flights.
  * The List of flights are validated to not contain
  * any null flights, but can be an empty list, before being created.
+ *
+ * The flights are kept in a {@link SortedFlightList}, which is always in
+ * {@link Flight#compareTo(Flight)} order, so reading the flights never sorts.
  * @author Leo Lu
  * PSU CS510 Advanced Java Winter 2023
  *
@@ -17,12 +20,11 @@ package edu.pdx.cs410J.leolu;
 import edu.pdx.cs410J.AbstractAirline;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 public class Airline extends AbstractAirline<Flight> {
   private final String name;
-  private List<Flight> flights;
+  private final SortedFlightList flights;
   private String error="";
 
 
@@ -34,7 +36,7 @@ public class Airline extends AbstractAirline<Flight> {
   public Airline(String name){
     validateAirlineName(name);
     this.name = name;
-    flights = new ArrayList<Flight>();
+    this.flights = new SortedFlightList();
   }
 
   /**
@@ -48,7 +50,30 @@ public class Airline extends AbstractAirline<Flight> {
     validateFlightList(flights);
 
     this.name = name;
-    this.flights = flights;
+    this.flights = new SortedFlightList();
+    if(flights != null) addFlights(flights);
+  }
+
+  /**
+   * Constructs a new instance of <code>Airline</code> around flights that are
+   * already sorted, e.g. read from a binary snapshot, without copying or sorting them
+   * @param name Airline Name
+   * @param sortedFlights unmodifiable flights in {@link Flight#compareTo(Flight)} order
+   * */
+  private Airline(String name, List<Flight> sortedFlights){
+    validateAirlineName(name);
+    this.name = name;
+    this.flights = SortedFlightList.viewOf(sortedFlights);
+  }
+
+  /**
+   * @param name Airline Name
+   * @param sortedFlights unmodifiable flights in {@link Flight#compareTo(Flight)} order,
+   * they are read through until a flight is added to the airline
+   * @return airline whose flights are a view of the sorted flights
+   * */
+  static Airline ofSortedFlights(String name, List<Flight> sortedFlights){
+    return new Airline(name, sortedFlights);
   }
 
   /**
@@ -60,7 +85,7 @@ public class Airline extends AbstractAirline<Flight> {
   }
 
   /**
-   * Adds a flight to the ArrayList
+   * Inserts a flight at its sorted position
    * Validates that the flight is not null before adding
    * @param flight Flight that is to be added
    * @throws  NullPointerException if flight is null
@@ -72,17 +97,32 @@ public class Airline extends AbstractAirline<Flight> {
     }catch(Exception e) {
       error = e.getMessage();
       System.out.println(e.getMessage());
+      return;
     }
     this.flights.add(flight);
   }
 
   /**
-   * @return  ArrayList flights
+   * Adds every flight with a single sort instead of one insert per flight
+   * Null flights are skipped
+   * @param added flights to be added, in any order
+   * */
+  public void addFlights(Collection<Flight> added) {
+    List<Flight> valid = new ArrayList<>(added.size());
+    for(Flight fl: added){
+      if(fl != null) valid.add(fl);
+    }
+    this.flights.addAll(valid);
+  }
+
+  /**
+   * The flights are kept sorted as they are added, so this returns the
+   * current snapshot without sorting or copying
+   * @return  unmodifiable, sorted list of flights
    * */
   @Override
   public Collection<Flight> getFlights() {
-    Collections.sort(flights);
-    return flights;
+    return this.flights.snapshot();
   }
 
   /**
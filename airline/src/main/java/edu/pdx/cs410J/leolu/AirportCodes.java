@@ -0,0 +1,94 @@
+/**
+ * The {code AirportCodes} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirportNames;
+
+/**
+ * Registry of the real airport codes from {@code AirportNames.getNamesMap()}.
+ * Every three-letter code maps to a dense id in [0, 26^3), computed from its
+ * letters in base 26, so ids sort in the same order as the upper-case codes.
+ * The registry is a table indexed by id that holds the shared code String
+ * of each real airport, so checking, comparing and printing a code needs
+ * no hashing, no upper-casing and no new Strings.
+ */
+public final class AirportCodes {
+    /** Id of anything that is not a three-letter code */
+    public static final int NONE = -1;
+    /** Number of possible three-letter codes */
+    public static final int COUNT = 26 * 26 * 26;
+
+    private static final String[] CODES = new String[COUNT];
+
+    static {
+        for(String code: AirportNames.getNamesMap().keySet()){
+            int id = idOf(code);
+            if(id != NONE) CODES[id] = code.toUpperCase();
+        }
+    }
+
+    private AirportCodes(){}
+
+    /**
+     * @param code three-letter code in any case
+     * @return id of the code, or {@link #NONE} when it is not three letters
+     * */
+    public static int idOf(String code){
+        if(code == null || code.length() != 3) return NONE;
+        return idOf(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    /**
+     * @param chars chars holding a code in any case
+     * @param from index of the first char of the code
+     * @param to index after the last char of the code
+     * @return id of the code, or {@link #NONE} when it is not three letters
+     * */
+    public static int idOf(char[] chars, int from, int to){
+        if(to - from != 3) return NONE;
+        return idOf(chars[from], chars[from + 1], chars[from + 2]);
+    }
+
+    private static int idOf(char first, char second, char third){
+        int a = letter(first), b = letter(second), c = letter(third);
+        if(a < 0 || b < 0 || c < 0) return NONE;
+        return (a * 26 + b) * 26 + c;
+    }
+
+    /**
+     * @return 0 to 25 for a letter in any case, -1 for anything else
+     * */
+    private static int letter(char c){
+        if(c >= 'A' && c <= 'Z') return c - 'A';
+        if(c >= 'a' && c <= 'z') return c - 'a';
+        return -1;
+    }
+
+    /**
+     * @param id id from {@link #idOf(String)}
+     * @return true when the id belongs to a real airport
+     * */
+    public static boolean isReal(int id){
+        return id >= 0 && id < COUNT && CODES[id] != null;
+    }
+
+    /**
+     * @param code three-letter code in any case
+     * @return true when the code belongs to a real airport
+     * */
+    public static boolean isReal(String code){
+        return isReal(idOf(code));
+    }
+
+    /**
+     * @param id id of a real airport
+     * @return the upper-case code of the airport, null when the id is not a real airport
+     * */
+    public static String codeOf(int id){
+        return isReal(id) ? CODES[id] : null;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * The {code BinaryDumper} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineDumper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * <code>BinaryDumper</code> class
+ * Writes an airline as a compact binary snapshot that {@link BinaryParser} memory-maps.
+ *
+ * The snapshot is big-endian: the magic number and the format version, the length
+ * of the UTF-8 airline name followed by the name, the number of flights, then one
+ * fixed-width record per flight in sorted order:
+ * <pre>
+ *   int   flight number
+ *   short departure airport id in {@link AirportCodes}
+ *   short arrival airport id in {@link AirportCodes}
+ *   int   departure datetime in minutes since 1/1/1970 00:00, local time
+ *   int   arrival datetime in minutes since 1/1/1970 00:00, local time
+ * </pre>
+ */
+public class BinaryDumper implements AirlineDumper<Airline> {
+    static final int MAGIC = 0x414C4E42; // "ALNB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16; // magic, version, name length and flight count, without the name
+    static final int RECORD_SIZE = 16;
+
+    private String filepath;
+    private OutputStream out;
+    private StringBuilder err = new StringBuilder();
+
+    public BinaryDumper(String filepath) {
+        this.filepath = filepath;
+    }
+
+    public BinaryDumper(OutputStream out){this.out = out;}
+
+    /**
+     * @param airways Accepts an airline object
+     * writes the airline and its flights as a binary snapshot into a file or stream
+     * */
+    @Override
+    public void dump(Airline airways) {
+        if(airways==null || airways.getName()==null){
+            err.append("BinaryDumper dump method does not accept null for airline object or airline name!");
+            System.err.println(err);
+            return;
+        }
+        try {
+            if(filepath!=null){
+                try(OutputStream file = new BufferedOutputStream(new FileOutputStream(filepath))){
+                    writeAirline(file, airways);
+                }
+                System.out.println("Binary file for " + airways.getName() + " created successfully.");
+            }else{
+                writeAirline(out, airways);
+            }
+        } catch (IOException e) {
+            err.append("Could not open the binary file for writing.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        } catch (IllegalArgumentException e) {
+            err.append(e.getMessage());
+            System.err.println(err);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the header and one record per flight
+     * The underlying stream is flushed but left open
+     * */
+    private void writeAirline(OutputStream stream, Airline airways) throws IOException {
+        Collection<Flight> flights = airways.getFlights();
+        byte[] name = airways.getName().getBytes(StandardCharsets.UTF_8);
+        DataOutputStream data = new DataOutputStream(stream);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(name.length);
+        data.write(name);
+        data.writeInt(flights.size());
+        for(Flight fl: flights){
+            data.writeInt(fl.getNumber());
+            data.writeShort(fl.getSourceId());
+            data.writeShort(fl.getDestinationId());
+            data.writeInt(epochMinutes(fl, fl.getDepartureDateTime()));
+            data.writeInt(epochMinutes(fl, fl.getArrivalDateTime()));
+        }
+        data.flush();
+    }
+
+    /**
+     * @return minutes of the local datetime since 1/1/1970 00:00
+     * @throws IllegalArgumentException when the flight has no such datetime or it does not fit in a record
+     * */
+    private static int epochMinutes(Flight fl, LocalDateTime dateTime){
+        if(dateTime == null)
+            throw new IllegalArgumentException("Flight " + fl.getNumber() + " is missing its departure or arrival datetime.");
+        long minutes = dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+        if(minutes < Integer.MIN_VALUE || minutes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Flight " + fl.getNumber() + " datetime is out of range: " + dateTime);
+        return (int) minutes;
+    }
+
+    /**
+     * @return String of error message stored within BinaryDumper object
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+}
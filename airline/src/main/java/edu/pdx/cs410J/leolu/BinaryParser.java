@@ -0,0 +1,127 @@
+/**
+ * The {code BinaryParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static edu.pdx.cs410J.leolu.BinaryDumper.*;
+
+/**
+ * <code>BinaryParser</code> class
+ * Opens a binary snapshot written by {@link BinaryDumper}.
+ *
+ * The file is memory-mapped and only its header is read when it is parsed.
+ * The flights of the airline are a view of the mapped records, a flight is
+ * decoded from its record each time it is read. Records are already sorted,
+ * so opening a snapshot takes the same time for any number of flights.
+ * The flights are copied out of the file only once a flight is added to the airline.
+ */
+public class BinaryParser implements AirlineParser<Airline> {
+    private String filepath;
+    private StringBuilder err = new StringBuilder();
+
+    /**
+     * @param filepath - only accepts a string filepath
+     * */
+    public BinaryParser(String filepath){
+        this.filepath=filepath;
+    }
+
+    /**
+     * parse() method
+     * @return Airline object whose flights are decoded from the mapped file as they are read
+     * @throws ParserException if the file cannot be read or is not a binary airline snapshot
+     * */
+    public Airline parse() throws ParserException{
+        try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE)
+                throw new ParserException("Binary airline file is too large to be mapped: " + size + " bytes");
+            ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if(size < HEADER_SIZE || file.getInt(0) != MAGIC)
+                throw new ParserException("File is not a binary airline file");
+            int version = file.getInt(4);
+            if(version != VERSION)
+                throw new ParserException("Unsupported binary airline file version: " + version);
+            int nameLength = file.getInt(8);
+            if(nameLength < 0 || nameLength > size - HEADER_SIZE)
+                throw new ParserException("Binary airline file is malformed, airline name is cut off");
+            byte[] name = new byte[nameLength];
+            file.get(12, name);
+            int count = file.getInt(12 + nameLength);
+            int recordsStart = HEADER_SIZE + nameLength;
+            if(count < 0 || (long) count * RECORD_SIZE != size - recordsStart)
+                throw new ParserException("Binary airline file is malformed, it does not hold " + count + " flights");
+
+            ByteBuffer records = file.slice(recordsStart, count * RECORD_SIZE);
+            return Airline.ofSortedFlights(new String(name, StandardCharsets.UTF_8), new MappedFlights(records, count));
+        } catch (IOException | ParserException e) {
+            err.append(e.getMessage());
+            throw new ParserException("Please enter a valid binary airline file path.", e);
+        }
+    }
+
+    /**
+     * @return String of error message stored within BinaryParser object
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+
+    /**
+     * Unmodifiable list of the flight records of a mapped snapshot
+     * Absolute reads never move the buffer, so the list can be read by any number of threads
+     * */
+    private static final class MappedFlights extends AbstractList<Flight> implements RandomAccess {
+        private final ByteBuffer records;
+        private final int size;
+
+        MappedFlights(ByteBuffer records, int size) {
+            this.records = records;
+            this.size = size;
+        }
+
+        /**
+         * @return a new Flight decoded from the record at the index
+         * @throws IllegalStateException when the record does not hold a valid flight
+         * */
+        @Override
+        public Flight get(int index) {
+            Objects.checkIndex(index, size);
+            int at = index * RECORD_SIZE;
+            int number = records.getInt(at);
+            int src = records.getShort(at + 4);
+            int dest = records.getShort(at + 6);
+            if(number <= 0 || !AirportCodes.isReal(src) || !AirportCodes.isReal(dest))
+                throw new IllegalStateException("Binary airline file is corrupt at flight " + (index + 1));
+            return new Flight(number, src, dateTime(records.getInt(at + 8)), dest, dateTime(records.getInt(at + 12)), true);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private static LocalDateTime dateTime(int epochMinutes) {
+            return LocalDateTime.ofEpochSecond(epochMinutes * 60L, 0, ZoneOffset.UTC);
+        }
+    }
+}
@@ -15,7 +15,7 @@ import java.io.*;
  * Accepts a txt file path and destination xml file path
  * Txt file must be correctly formatted before converting to xml format
  * Uses <code>TextParser</code> to parse txt file
- * Uses <code>XmlDumper</code> to produce xml file
+ * Uses <code>StreamingXmlDumper</code> to produce xml file
  */
 public class Converter {
 
@@ -44,7 +44,7 @@ public class Converter {
         String xmlFilePath = args[1];
         Airline airline = getAirlineFromParsedTextFile(textFilePath);
         if(airline == null) return;
-        XmlDumper dumper = new XmlDumper(xmlFilePath);
+        StreamingXmlDumper dumper = new StreamingXmlDumper(xmlFilePath);
         dumper.dump(airline);
     }
 
@@ -0,0 +1,251 @@
+/**
+ * The {code FlightTokenizer} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Splits the lines of an airline txt file into the fields of a flight without
+ * creating a String per line or per field. A line is a window of a char array,
+ * the tokenizer only records where each field starts and ends, and a well formed
+ * flight is built straight from those offsets: the number, dates and times are
+ * read digit by digit and the airport codes are looked up in {@link AirportCodes}.
+ *
+ * Anything that is not a well formed 24 hr flight is left to the String based
+ * {@link Flight} constructor through {@link #fields()}, so malformed lines keep
+ * printing exactly the same errors.
+ */
+final class FlightTokenizer {
+    private static final int FIELDS = 7;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position, limit;
+    private boolean skipLineFeed;
+
+    private char[] chars;
+    private int from, to;
+    private int count;
+    private final int[] starts = new int[FIELDS];
+    private final int[] ends = new int[FIELDS];
+
+    /**
+     * Tokenizer for windows handed to {@link #tokenize(char[], int, int)}
+     * */
+    FlightTokenizer() {
+        this.reader = null;
+    }
+
+    /**
+     * Tokenizer for the lines of a reader, read with {@link #nextLine()}
+     * @param reader reader of an airline txt file, it is read in blocks so it does not need to be buffered
+     * */
+    FlightTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Reads and tokenizes the next line, a line ends at \n, \r or \r\n like <code>BufferedReader.readLine</code>
+     * @return false when there are no more lines
+     * */
+    boolean nextLine() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (position == limit) fill();
+            if (position < limit && buffer[position] == '\n') position++;
+        }
+        int scanned = position;
+        while (true) {
+            for (; scanned < limit; scanned++) {
+                char c = buffer[scanned];
+                if (c == '\n' || c == '\r') {
+                    tokenize(buffer, position, scanned);
+                    skipLineFeed = c == '\r';
+                    position = scanned + 1;
+                    return true;
+                }
+            }
+            int lineStart = position;
+            if (!fill()) {
+                if (position == limit) return false;
+                tokenize(buffer, position, limit);
+                position = limit;
+                return true;
+            }
+            scanned -= lineStart - position;
+        }
+    }
+
+    /**
+     * Moves the current line to the front of the buffer, growing it when the line fills it,
+     * then reads more chars after it
+     * @return false at the end of the reader
+     * */
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) return false;
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Records the whitespace separated fields of a line, counted the same way as
+     * {@link FlightValidator#splitFields(String)}: a line with leading whitespace
+     * starts with an empty field, an empty line is a single empty field and a
+     * line of only whitespace has no fields
+     * @param chars chars of the line, they must not change while the line is in use
+     * @param from index of the first char of the line
+     * @param to index after the last char of the line, without its line break
+     * @return the number of fields of the line
+     * */
+    int tokenize(char[] chars, int from, int to) {
+        this.chars = chars;
+        this.from = from;
+        this.to = to;
+        count = 0;
+        if (from == to) {
+            record(from, to);
+            return count;
+        }
+        boolean leadingWhitespace = isWhitespace(chars[from]);
+        if (leadingWhitespace) record(from, from);
+        int i = from;
+        while (true) {
+            while (i < to && isWhitespace(chars[i])) i++;
+            if (i == to) break;
+            int start = i;
+            while (i < to && !isWhitespace(chars[i])) i++;
+            record(start, i);
+        }
+        if (leadingWhitespace && count == 1) count = 0;
+        return count;
+    }
+
+    private void record(int start, int end) {
+        if (count < FIELDS) {
+            starts[count] = start;
+            ends[count] = end;
+        }
+        count++;
+    }
+
+    /**
+     * Same chars as the \s of a regex
+     * */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @return the number of fields of the current line
+     * */
+    int fieldCount() {
+        return count;
+    }
+
+    /**
+     * @return the current line as a String
+     * */
+    String line() {
+        return new String(chars, from, to - from);
+    }
+
+    /**
+     * @return every field of the current line as Strings, for lines that are not a well formed flight
+     * */
+    String[] fields() {
+        return FlightValidator.splitFields(line());
+    }
+
+    /**
+     * Builds the flight of the current line straight from the field offsets.
+     * Fields are in the txt file order: number, source, departure date and 24 hr time,
+     * destination, arrival date and 24 hr time
+     * @param quiet if True, an arrival before the departure is not printed
+     * @return the flight, or null when the line is not a well formed flight
+     * and has to be checked by the String based constructor
+     * */
+    Flight toFlight(boolean quiet) {
+        if (count != FIELDS) return null;
+        int number = number(starts[0], ends[0], 1, 9);
+        if (number <= 0) return null;
+        int src = AirportCodes.idOf(chars, starts[1], ends[1]);
+        if (!AirportCodes.isReal(src)) return null;
+        LocalDateTime departure = dateTime(2, 3);
+        if (departure == null) return null;
+        int dest = AirportCodes.idOf(chars, starts[4], ends[4]);
+        if (!AirportCodes.isReal(dest)) return null;
+        LocalDateTime arrival = dateTime(5, 6);
+        if (arrival == null) return null;
+        return new Flight(number, src, departure, dest, arrival, quiet);
+    }
+
+    /**
+     * Reads an M/d/yyyy date field and an H:mm time field,
+     * accepting the same values as {@link FlightValidator}
+     * @return the date and time, or null when either field is not valid
+     * */
+    private LocalDateTime dateTime(int date, int time) {
+        int start = starts[date], end = ends[date];
+        int slash = indexOf('/', start, end);
+        if (slash < 0) return null;
+        int secondSlash = indexOf('/', slash + 1, end);
+        if (secondSlash < 0) return null;
+        int month = number(start, slash, 1, 2);
+        int day = number(slash + 1, secondSlash, 1, 2);
+        int yearDigits = end - secondSlash - 1;
+        int year = yearDigits == 2 || yearDigits == 4 ? number(secondSlash + 1, end, 2, 4) : -1;
+        if (month < 1 || month > 12 || day < 1 || day > 31 || year < 0) return null;
+
+        start = starts[time];
+        end = ends[time];
+        int colon = indexOf(':', start, end);
+        if (colon < 0) return null;
+        int hour = number(start, colon, 1, 2);
+        int minute = number(colon + 1, end, 2, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+        return Flight.dateTime(year, month, day, hour, minute);
+    }
+
+    /**
+     * @return value of the ASCII digits between start and end,
+     * -1 when there are not between minDigits and maxDigits of them or any char is not a digit
+     * */
+    private int number(int start, int end, int minDigits, int maxDigits) {
+        int digits = end - start;
+        if (digits < minDigits || digits > maxDigits) return -1;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return index of the first c between start and end, -1 when there is none
+     * */
+    private int indexOf(char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (chars[i] == c) return i;
+        }
+        return -1;
+    }
+}
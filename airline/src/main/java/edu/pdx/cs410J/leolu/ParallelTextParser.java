@@ -0,0 +1,256 @@
+/**
+ * The {code ParallelTextParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *  <code>ParallelTextParser</code> class
+ *
+ * Reads the same UTF-8 airline txt file as {@link TextParser}, for files too large
+ * to parse on a single thread. The file after the airline name is split into
+ * line-aligned chunks that are memory-mapped and parsed on a fork/join pool.
+ * Each chunk stops at its first malformed flight and remembers how many valid
+ * flights came before it, so the chunks can be merged in file order and the
+ * first malformed flight is reported with the same line number and messages
+ * as the sequential parser.
+ */
+public class ParallelTextParser implements AirlineParser<Airline> {
+  static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int SCAN_SIZE = 8 * 1024;
+
+  private final String filepath;
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+  private FileChannel channel;
+  private StringBuilder err = new StringBuilder();
+
+  /**
+   * Constructor, chunks are parsed on the common fork/join pool
+   * @param filepath path of the airline txt file
+   * */
+  public ParallelTextParser(String filepath) {
+    this(filepath, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param filepath path of the airline txt file
+   * @param chunkSize largest number of bytes parsed by a single task
+   * @param pool pool the chunks are parsed on
+   * */
+  ParallelTextParser(String filepath, int chunkSize, ForkJoinPool pool) {
+    this.filepath = filepath;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+  }
+
+  /**
+   * Parses the airline name, then every flight of the file in parallel
+   * Error messages are printed should any information be missing from the first malformed flight
+   * @return Airline with every flight of the file, null when a flight is malformed
+   * @throws ParserException when the file does not contain an airline name
+   * */
+  public Airline parse() throws ParserException{
+    try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+      this.channel = channel;
+      long size = channel.size();
+      if (size == 0) {
+        throw new ParserException("Missing airline name");
+      }
+      long nameEnd = nextLineBreak(0, size);
+      Airline airline = new Airline(decode(0, nameEnd));
+      long flightsStart = skipLineBreak(nameEnd, size);
+
+      Chunk flights = pool.invoke(new ChunkTask(flightsStart, size));
+      int lineNumber = flights.records + 1;
+      String[] s = flights.badRecord;
+      if(s != null){
+        if(TextParser.appendFieldCountError(err, s, lineNumber)) throw new IllegalArgumentException(err.toString());
+        new Flight(s[0],s[1],s[2],s[3],s[4],s[5],s[6],true);//prints what is wrong with the flight
+        TextParser.printMalformedFlight(lineNumber);
+        return null;
+      }
+      airline.addFlights(flights.flights);
+      return airline;
+
+    }catch (ParserException e) {
+      throw new ParserException("Malformed airline txt file", e);
+    }catch(IOException e){
+      System.err.println("An error occurred: " + e.getMessage());
+    }catch(UncheckedIOException e){
+      System.err.println("An error occurred: " + e.getCause().getMessage());
+    }catch(IllegalArgumentException e){
+      System.out.println(e.getMessage());
+      System.out.println("Please revise the flight formats in the airline file accordingly.");
+    }finally {
+      this.channel = null;
+    }
+    return null;
+  }
+
+  public String getError(){
+    return err.toString();
+  }
+
+  /**
+   * Parses the lines of a chunk until the first malformed flight
+   * @param start offset of the first byte of the chunk, the start of a line
+   * @param end offset after the last byte of the chunk, the start of a line or the end of the file
+   * */
+  private Chunk parseChunk(long start, long end) throws IOException {
+    Chunk chunk = new Chunk();
+    CharBuffer decoded = StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+    char[] chars = decoded.array();
+    int n = decoded.arrayOffset() + decoded.limit();
+    FlightTokenizer tokens = new FlightTokenizer();
+    int i = decoded.arrayOffset();
+    while(i < n){
+      int j = i;
+      while(j < n && chars[j] != '\n' && chars[j] != '\r') j++;
+      tokens.tokenize(chars, i, j);
+      if(j + 1 < n && chars[j] == '\r' && chars[j + 1] == '\n') j++;
+      i = j + 1;
+
+      if(tokens.fieldCount()==0) continue; //ignore empty lines;
+      Flight fl = tokens.toFlight(true);
+      if(fl == null){
+        String[] s = tokens.fields();
+        if(s.length!=7){
+          chunk.badRecord = s;
+          return chunk;
+        }
+        fl = new Flight(s[0],s[1],s[2],s[3],s[4],s[5],s[6],true,true);
+      }
+      if(fl.getError().length()!=0){
+        chunk.badRecord = tokens.fields();
+        return chunk;
+      }
+      chunk.flights.add(fl);
+      ++chunk.records;
+    }
+    return chunk;
+  }
+
+  /**
+   * @return offset of the first line break at or after from, end when there is none
+   * */
+  private long nextLineBreak(long from, long end) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+    for(long position = from; position < end; ){
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if(read <= 0) break;
+      for(int k = 0; k < read; k++){
+        byte b = buffer.get(k);
+        if(b == '\n' || b == '\r') return position + k;
+      }
+      position += read;
+    }
+    return end;
+  }
+
+  /**
+   * @return offset after the line break at position, a \r\n pair is a single line break
+   * */
+  private long skipLineBreak(long position, long end) throws IOException {
+    if(position >= end) return end;
+    ByteBuffer pair = ByteBuffer.allocate(2);
+    int read = channel.read(pair, position);
+    if(read == 2 && pair.get(0) == '\r' && pair.get(1) == '\n') return position + 2;
+    return position + 1;
+  }
+
+  /**
+   * @return offset after the first \n at or after from, end when there is none
+   * */
+  private long nextLineStart(long from, long end) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+    for(long position = from; position < end; ){
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if(read <= 0) break;
+      for(int k = 0; k < read; k++){
+        if(buffer.get(k) == '\n') return position + k + 1;
+      }
+      position += read;
+    }
+    return end;
+  }
+
+  private String decode(long start, long end) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+    while(bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) > 0);
+    bytes.flip();
+    return StandardCharsets.UTF_8.decode(bytes).toString();
+  }
+
+  /**
+   * Flights of a run of consecutive lines, up to the first malformed flight
+   * */
+  private static final class Chunk {
+    private final List<Flight> flights = new ArrayList<>();
+    private int records; // valid flights before the first malformed flight
+    private String[] badRecord; // fields of the first malformed flight, null when every flight is valid
+
+    /**
+     * @param next chunk that directly follows this chunk in the file
+     * @return this chunk extended by the next chunk, unless this chunk already stopped at a malformed flight
+     * */
+    private Chunk append(Chunk next){
+      if(badRecord != null) return this;
+      flights.addAll(next.flights);
+      records += next.records;
+      badRecord = next.badRecord;
+      return this;
+    }
+  }
+
+  /**
+   * Splits its range of the file in two at a line start until the range is
+   * at most one chunk long, then parses it
+   * */
+  private final class ChunkTask extends RecursiveTask<Chunk> {
+    private final long start, end;
+
+    private ChunkTask(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Chunk compute() {
+      try {
+        if(end - start > chunkSize){
+          long middle = nextLineStart(start + (end - start) / 2, end);
+          if(middle < end){
+            ChunkTask second = new ChunkTask(middle, end);
+            second.fork();
+            Chunk first = new ChunkTask(start, middle).compute();
+            return first.append(second.join());
+          }
+        }
+        return parseChunk(start, end);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
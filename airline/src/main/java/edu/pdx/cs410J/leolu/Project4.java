@@ -13,7 +13,7 @@ import java.util.Scanner;
 
 public class Project4 {
 
-    boolean printFlight = false, readMe = false, tooMany=false;
+    boolean printFlight = false, readMe = false, tooMany=false, append = false;
     Airline anAirline;
     Flight aFlight;
     String txtFilePath = "", prettyFilePath = "", xmlFilePath="";
@@ -71,6 +71,11 @@ public class Project4 {
         */
         if(!newArgumentReader(args,ex))return;
         if(ex.readMe) return; //If "-README" is called, exit
+        if(ex.append && ex.txtStatus != -1 && ex.xmlStatus != -1){
+            System.err.println("The -append option can only be used together with -textFile file or -xmlFile file. \n" +
+                    "Please review usage and try again.");
+            return;
+        }
 
         /*
         try to create airline and flight
@@ -83,10 +88,14 @@ public class Project4 {
         if anything fails, exit program
         */
         if(ex.txtStatus ==-1){
-            if(!txtFile(ex.txtFilePath, ex.anAirline))return;
+            if(ex.append){
+                if(!appendToTxtFile(ex.txtFilePath, ex.anAirline))return;
+            }else if(!txtFile(ex.txtFilePath, ex.anAirline))return;
         }
         if(ex.xmlStatus ==-1){
-            if(!createXmlFile(ex.xmlFilePath, ex.anAirline))return;
+            if(ex.append){
+                if(!appendToXmlFile(ex.xmlFilePath, ex.anAirline))return;
+            }else if(!createXmlFile(ex.xmlFilePath, ex.anAirline))return;
         }
         if(ex.prettyStatus ==-2 || ex.prettyStatus ==-1){
             if(!prettyPrint(ex.prettyStatus, ex))return;
@@ -171,15 +180,15 @@ public class Project4 {
     /**
      * @param path String xml file path provided in args
      * @param airline Airline created from user input args
-     * If xml file has contents, it will be parsed first by XmlParser
+     * If xml file has contents, it will be parsed first by StreamingXmlParser
      * and the file airline name will be checked against airline from input args
      * before both are merged together.
-     * Airline is dumped into specified file path by XmlDumper
+     * Airline is dumped into specified file path by StreamingXmlDumper
      * */
     public static boolean createXmlFile(String path, Airline airline){
         File file = new File(path);
         if(file.length()!=0){ //Not empty;
-            XmlParser parser = new XmlParser(path);
+            StreamingXmlParser parser = new StreamingXmlParser(path);
             Airline xmlAirline = null;
             try{
                 xmlAirline = parser.parse();
@@ -193,13 +202,45 @@ public class Project4 {
                         " the file and the input string.");
                 return false;
             }
-            for(Flight fl: xmlAirline.getFlights()) airline.addFlight(fl);
+            airline.addFlights(xmlAirline.getFlights());
         }
-        XmlDumper dumper = new XmlDumper(path);
+        StreamingXmlDumper dumper = new StreamingXmlDumper(path);
         dumper.dump(airline);
         return true;
     }
 
+    /**
+     * Append mode of -xmlFile
+     * Adds the new flight to an XML file without parsing or rewriting the flights already in it
+     * Only the header of the file is read by StreamingXmlParser to check the airline name,
+     * then StreamingXmlDumper writes the flight element in place of the closing airline tag.
+     * Like appendToTxtFile, appended flights stay in the order they were added.
+     * An empty file, a file that does not exist or a file that does not end with the closing airline tag
+     * is handled by createXmlFile
+     * @param path File path provided by user
+     * @param airline Airline created from user input args
+     * @return true if all processes are successful
+     * @return false should any process fail
+     * */
+    public static boolean appendToXmlFile(String path, Airline airline){
+        File file = new File(path);
+        if(file.length()==0) return createXmlFile(path, airline);
+        try{
+            compareAirlineNamesBetweenFileAndArgs(airline.getName(), StreamingXmlParser.readAirlineName(path));
+        }catch(ParserException e){
+            System.err.println(e.getMessage());
+            return false;
+        }catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Please make sure that airline name matches in both" +
+                    " the file and the input string.");
+            return false;
+        }
+        StreamingXmlDumper dumper = new StreamingXmlDumper(path);
+        if(!dumper.append(airline)) return createXmlFile(path, airline);
+        return true;
+    }
+
     /**
      * Ensures that both airlines have matching names
      * @throws IllegalArgumentException if input arg airline name does not match
@@ -247,7 +288,7 @@ public class Project4 {
                 // When airline names do not match, throw error and exit.
                 compareAirlineNamesBetweenFileAndArgs(fAirline.getName(),airline.getName());
                 //When file and String arg airline names match, add new flight to airline
-                for(Flight fl: fAirline.getFlights())airline.addFlight(fl);
+                airline.addFlights(fAirline.getFlights());
                 FileWriter fw = new FileWriter(file);
                 TextDumper dumper = new TextDumper(fw);
                 dumper.dump(airline);
@@ -268,6 +309,60 @@ public class Project4 {
         return true;
     }
 
+    /**
+     * Append mode of -textFile
+     * Adds the new flight to a txt file without reading or rewriting the flights already in it
+     * Only the airline name on the first line of the file is checked against the Project4 airline,
+     * then the flight lines are appended with a single write.
+     * Appended flights stay in the order they were added,
+     * TextParser sorts them when the file is read and -textFile without -append rewrites the file sorted.
+     * An empty file or a file that does not exist is written the same way as txtFile
+     * @param path File path provided by user
+     * @param airline Takes Project4 airline
+     * @return true if all processes are successful
+     * @return false should any process fail
+     * */
+    public static boolean appendToTxtFile(String path, Airline airline) {
+        File file = new File(path);
+        try{
+            if(file.length() == 0) return txtFile(path, airline);
+            String fileAirlineName;
+            try(BufferedReader br = new BufferedReader(new FileReader(file))){
+                fileAirlineName = br.readLine();
+            }
+            compareAirlineNamesBetweenFileAndArgs(fileAirlineName, airline.getName());
+
+            StringBuilder lines = new StringBuilder();
+            if(!endsWithLineBreak(file)) lines.append(System.lineSeparator());
+            for(Flight fl: airline.getFlights()){
+                lines.append(TextDumper.flightLine(fl)).append(System.lineSeparator());
+            }
+            try(Writer fw = new FileWriter(file, true)){
+                fw.write(lines.toString());
+            }
+        }catch(IOException e){
+            System.out.println("An error occurred while create the file.");
+            return false;
+        }catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Please make sure that airline name matches in both" +
+                    " the file and the input string.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true when the last character of the file is a line break
+     * */
+    private static boolean endsWithLineBreak(File file) throws IOException {
+        try(RandomAccessFile raf = new RandomAccessFile(file, "r")){
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            return last == '\n' || last == '\r';
+        }
+    }
+
     /**
      * Creates Airline with airlineName
      * Creates an empty Flight
@@ -389,6 +484,11 @@ public class Project4 {
             curr.idx+=1;
             return true;
         }
+        else if(opt.equalsIgnoreCase("-append")){
+            curr.append = true;
+            curr.idx+=1;
+            return true;
+        }
         else if(opt.equalsIgnoreCase("-pretty")){
             if(curr.prettyStatus ==-1 || curr.prettyStatus ==-2){//text file already set
                 System.err.println("The -pretty option can only be called once. \n" +
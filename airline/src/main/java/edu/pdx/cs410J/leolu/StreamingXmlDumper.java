@@ -0,0 +1,255 @@
+/**
+ * The {code StreamingXmlDumper} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineDumper;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>StreamingXmlDumper</code> class for Project 4.
+ * Produces the same valid XML document as {@link XmlDumper} according to provided DTD:
+ * http://www.cs.pdx.edu/~whitlock/dtds/airline.dtd
+ * Flights are written one at a time with an <code>XMLStreamWriter</code>,
+ * so no DOM Document is held in memory while dumping.
+ */
+public class StreamingXmlDumper implements AirlineDumper<Airline> {
+    private static final String ENCODING = "us-ascii";
+    private static final String DECLARATION =
+            "<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" standalone=\"no\"?>";
+    private static final String DOCTYPE =
+            "<!DOCTYPE airline SYSTEM \"" + AirlineXmlHelper.SYSTEM_ID + "\">";
+    private static final String INDENT = "    ";
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String CLOSING_TAG = "</airline>";
+    private static final int TAIL_SIZE = 1024;
+
+    private String filepath;
+    private Writer writer;
+    private StringBuilder err = new StringBuilder();
+
+    public StreamingXmlDumper(String filepath) {
+        this.filepath = filepath;
+    }
+
+    public StreamingXmlDumper(Writer writer){this.writer = writer;}
+
+    /**
+     * @param airways Accepts an airline object
+     * streams the airline and its flight information into an XML file or writer
+     * */
+    @Override
+    public void dump(Airline airways) {
+        if(airways==null){
+            err.append("StreamingXmlDumper dump method does not accept null for airline object!");
+            System.err.println(err);
+            return;
+        }
+        try {
+            if(filepath!=null){
+                try(OutputStream out = new BufferedOutputStream(new FileOutputStream(filepath))){
+                    out.write((DECLARATION + NEWLINE).getBytes(StandardCharsets.US_ASCII));
+                    XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, ENCODING);
+                    writeAirline(xml, airways);
+                }
+                System.out.println("XML file for " + airways.getName() + " created successfully.");
+            }else{
+                writer.write(DECLARATION + NEWLINE);
+                XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+                writeAirline(xml, airways);
+                writer.flush();
+            }
+        } catch (IOException e) {
+            err.append("Could not open the XML file for writing.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        } catch (XMLStreamException e) {
+            err.append("XMLStreamWriter failed to write airline to xml file.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends the flights of the airline to the XML file in place.
+     * The new flight elements are written over the closing airline tag at the end of the file,
+     * followed by a new closing tag, so none of the flights already in the file are read or rewritten
+     * and the file stays valid against the DTD.
+     * The airline name in the file is not checked, see {@link StreamingXmlParser#readAirlineName(String)}
+     * @param airways airline with the flights to append
+     * @return false when the file does not end with the closing airline tag and nothing was written
+     * */
+    public boolean append(Airline airways) {
+        if(airways==null){
+            err.append("StreamingXmlDumper append method does not accept null for airline object!");
+            System.err.println(err);
+            return false;
+        }
+        try(RandomAccessFile raf = new RandomAccessFile(filepath, "rw")){
+            long offset = closingTagOffset(raf);
+            if(offset<0) return false;
+            StringWriter flights = new StringWriter();
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(flights);
+            for(Flight fl: airways.getFlights()){
+                newLine(xml, 1);
+                writeFlight(xml, fl);
+            }
+            newLine(xml, 0);
+            xml.flush();
+            xml.close();
+            byte[] tail = (flights + CLOSING_TAG + NEWLINE).getBytes(StandardCharsets.US_ASCII);
+            raf.seek(offset);
+            raf.write(tail);
+            raf.setLength(offset + tail.length);
+            System.out.println("XML file for " + airways.getName() + " appended successfully.");
+        } catch (IOException e) {
+            err.append("Could not open the XML file for writing.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        } catch (XMLStreamException e) {
+            err.append("XMLStreamWriter failed to write airline to xml file.");
+            System.err.println(err);
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Looks for the closing airline tag in the last bytes of the file,
+     * only whitespace may follow it
+     * @return offset of the whitespace before the closing tag, -1 when the file does not end with it
+     * */
+    private static long closingTagOffset(RandomAccessFile raf) throws IOException {
+        long length = raf.length();
+        int size = (int) Math.min(length, TAIL_SIZE);
+        byte[] bytes = new byte[size];
+        raf.seek(length - size);
+        raf.readFully(bytes);
+        String tail = new String(bytes, StandardCharsets.US_ASCII);
+        int tag = tail.lastIndexOf(CLOSING_TAG);
+        if(tag<0 || !tail.substring(tag + CLOSING_TAG.length()).isBlank()) return -1;
+        while(tag>0 && Character.isWhitespace(tail.charAt(tag - 1))) --tag;
+        return length - size + tag;
+    }
+
+    /**
+     * Writes the doctype, the airline name and each of the flights
+     * The underlying stream is flushed but left open
+     * */
+    private void writeAirline(XMLStreamWriter xml, Airline airways) throws XMLStreamException {
+        xml.writeDTD(DOCTYPE);
+        xml.writeCharacters(NEWLINE);
+        xml.writeStartElement("airline");
+        newLine(xml, 1);
+        writeTextElement(xml, "name", airways.getName());
+        for(Flight fl: airways.getFlights()){
+            newLine(xml, 1);
+            writeFlight(xml, fl);
+        }
+        newLine(xml, 0);
+        xml.writeEndElement();
+        xml.writeCharacters(NEWLINE);
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+
+    /**
+     * Writes the flight element and its children for a single flight
+     * */
+    private void writeFlight(XMLStreamWriter xml, Flight fl) throws XMLStreamException {
+        xml.writeStartElement("flight");
+        newLine(xml, 2);
+        writeTextElement(xml, "number", Integer.toString(fl.getNumber()));
+        /*Departure*/
+        newLine(xml, 2);
+        writeTextElement(xml, "src", fl.getSource());
+        newLine(xml, 2);
+        writeDatetime(xml, "depart", fl.getDepDate(), fl.getDepTime24());
+        /*Arrival*/
+        newLine(xml, 2);
+        writeTextElement(xml, "dest", fl.getDestination());
+        newLine(xml, 2);
+        writeDatetime(xml, "arrive", fl.getArrDate(), fl.getArrTime24());
+        newLine(xml, 1);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes the depart or arrive element with its date and time elements
+     * @param type depart or arrive
+     * @param date MM/dd/yyyy date of the flight
+     * @param time H:mm time of the flight
+     * */
+    private void writeDatetime(XMLStreamWriter xml, String type, String date, String time) throws XMLStreamException {
+        String[] monthDayYear = date.split("/");
+        String[] hoursMins = time.split(":");
+        xml.writeStartElement(type);
+        newLine(xml, 3);
+        xml.writeEmptyElement("date");
+        xml.writeAttribute("day", monthDayYear[1]);
+        xml.writeAttribute("month", monthDayYear[0]);
+        xml.writeAttribute("year", monthDayYear[2]);
+        newLine(xml, 3);
+        xml.writeEmptyElement("time");
+        xml.writeAttribute("hour", hoursMins[0]);
+        xml.writeAttribute("minute", hoursMins[1]);
+        newLine(xml, 2);
+        xml.writeEndElement();
+    }
+
+    private void writeTextElement(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        writeAsciiText(xml, text);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes text content, replacing characters outside of us-ascii with
+     * decimal character references the same way the DOM transformer does
+     * */
+    private void writeAsciiText(XMLStreamWriter xml, String text) throws XMLStreamException {
+        int start = 0;
+        for(int i=0; i<text.length(); ){
+            int cp = text.codePointAt(i);
+            if(cp > 0x7F){
+                if(start < i) xml.writeCharacters(text.substring(start, i));
+                xml.writeEntityRef("#" + cp);
+                start = i + Character.charCount(cp);
+            }
+            i += Character.charCount(cp);
+        }
+        if(start < text.length()) xml.writeCharacters(text.substring(start));
+    }
+
+    /**
+     * Writes a line break followed by the indentation for the given depth,
+     * matching the indented output of the DOM transformer
+     * */
+    private void newLine(XMLStreamWriter xml, int depth) throws XMLStreamException {
+        xml.writeCharacters(NEWLINE + INDENT.repeat(depth));
+    }
+
+    /**
+     * Deletes the XML file using the filepath associated with the StreamingXmlDumper object
+     * */
+    public void deleteXmlFile(){
+        File temp = new File(filepath);
+        temp.delete();
+    }
+
+    /**
+     * @return String of error message stored within StreamingXmlDumper object
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * The {code StreamingXmlParser} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.AirlineParser;
+import edu.pdx.cs410J.ParserException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <code>StreamingXmlParser</code> class for Project 4.
+ * Streaming alternative to {@link XmlParser} for very large airline files.
+ * The file is still validated against the provided DTD:
+ * http://www.cs.pdx.edu/~whitlock/dtds/airline.dtd
+ * but no DOM is built, each flight is created as soon as its
+ * closing flight tag is read, so parsing memory only grows with the flights.
+ * The flights are added to the airline with a single sort once the file is read,
+ * so a file whose flights were appended out of order is not sorted one insert at a time.
+ */
+public class StreamingXmlParser implements AirlineParser<Airline> {
+    private String filepath = "";
+    private Reader reader;
+    private StringBuilder err = new StringBuilder();
+
+    /**
+     * Constructor for StreamingXmlParser
+     * @param filepath - only accepts a string filepath
+     * */
+    public StreamingXmlParser(String filepath){
+        this.filepath = filepath;
+    }
+
+    /**
+     * Constructor for StreamingXmlParser
+     * @param reader - an initialized Reader with the xml content to be parsed
+     * */
+    public StreamingXmlParser(Reader reader){
+        this.reader = reader;
+    }
+
+    /**
+     * parse() method
+     * @return Airline object when the XML file is successfully parsed
+     * @return null when any flight information is invalid
+     * @throws ParserException if the XML file path is invalid or the file does not conform to the DTD
+     * */
+    public Airline parse() throws ParserException{
+        FlightHandler handler = new FlightHandler();
+        try {
+            if(reader==null && filepath.isEmpty()) throw new ParserException("File path is empty");
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setValidating(true);
+            SAXParser parser = factory.newSAXParser();
+            InputSource source = reader!=null ? new InputSource(reader)
+                    : new InputSource(new File(filepath).toURI().toString());
+            parser.parse(source, handler);
+        } catch (InvalidFlightException e) {
+            System.out.println(err);
+            return null;
+        } catch (SAXException | IOException | ParserException e) {
+            err.append(e.getMessage());
+            throw new ParserException("Please enter a valid XML file path.",e);
+        } catch (ParserConfigurationException e) {
+            err.append("SAXParserFactory could not produce a parser.");
+            System.out.println(err);
+            throw new RuntimeException(e);
+        }
+        if(handler.airline != null) handler.airline.addFlights(handler.flights);
+        return handler.airline;
+    }
+
+    /**
+     * Reads only the header of an airline XML file, up to the airline name,
+     * without loading the DTD or reading any of the flights
+     * @param filepath path of the XML file
+     * @return the airline name in the file
+     * @throws ParserException if the file can not be read or does not start with the airline and name elements
+     * */
+    static String readAirlineName(String filepath) throws ParserException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        try(InputStream in = new BufferedInputStream(new FileInputStream(filepath))){
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try{
+                if(!nextElementIs(xml, "airline") || !nextElementIs(xml, "name")){
+                    throw new ParserException("XML file does not start with an airline name, it does not conform to the DTD.");
+                }
+                return xml.getElementText();
+            }finally{
+                xml.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new ParserException("Please enter a valid XML file path.",e);
+        }
+    }
+
+    /**
+     * Skips the doctype, comments and whitespace up to the next start tag
+     * @return true when the next start tag is the named element
+     * */
+    private static boolean nextElementIs(XMLStreamReader xml, String name) throws XMLStreamException {
+        while(xml.hasNext()){
+            int event = xml.next();
+            if(event==XMLStreamConstants.START_ELEMENT) return xml.getLocalName().equals(name);
+            if(event==XMLStreamConstants.END_ELEMENT) return false;
+        }
+        return false;
+    }
+
+    /**
+     * @return String of stored error message
+     * */
+    public String getErrorMsg(){
+        return err.toString();
+    }
+
+    /**
+     * Thrown by the handler to stop parsing once a flight with invalid information is read
+     * */
+    private static class InvalidFlightException extends SAXException {
+        InvalidFlightException(String message){
+            super(message);
+        }
+    }
+
+    /**
+     * SAX handler that builds the flights one at a time.
+     * Only the values of the flight currently being read and the flights already built are kept.
+     * DTD resolution and validation errors are delegated to {@link AirlineXmlHelper}
+     * */
+    private class FlightHandler extends DefaultHandler {
+        private final AirlineXmlHelper helper = new AirlineXmlHelper();
+        private final StringBuilder text = new StringBuilder();
+        private Airline airline;
+        private final List<Flight> flights = new ArrayList<>();
+        private int flightCount = 0;
+        private boolean departing;
+        private String number, src, dest;
+        private String departDate, departTime, arriveDate, arriveTime;
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+            return helper.resolveEntity(publicId, systemId);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            helper.warning(e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            helper.error(e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            helper.fatalError(e);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            text.setLength(0);
+            switch (qName) {
+                case "depart":
+                    departing = true;
+                    break;
+                case "arrive":
+                    departing = false;
+                    break;
+                case "date":
+                    String date = createDate(attributes);
+                    if(departing) departDate = date;
+                    else arriveDate = date;
+                    break;
+                case "time":
+                    String time = createTime(attributes);
+                    if(departing) departTime = time;
+                    else arriveTime = time;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (qName) {
+                case "name":
+                    airline = new Airline(text.toString());
+                    break;
+                case "number":
+                    number = text.toString();
+                    break;
+                case "src":
+                    src = text.toString();
+                    break;
+                case "dest":
+                    dest = text.toString();
+                    break;
+                case "flight":
+                    addFlight();
+                    break;
+                default:
+                    break;
+            }
+            text.setLength(0);
+        }
+
+        /**
+         * Builds the flight that was just read and adds it to the flights of the airline
+         * @throws InvalidFlightException when the flight information is invalid
+         * */
+        private void addFlight() throws InvalidFlightException {
+            ++flightCount;
+            Flight fl = new Flight(number,src,departDate,departTime,dest,arriveDate,arriveTime,true);
+            if(fl.getError().length()!=0){
+                err.append("Flight information for the number ");
+                err.append(flightCount);
+                err.append(" of XML file does not conform to the DTD, please review and correct the file.");
+                throw new InvalidFlightException(err.toString());
+            }
+            flights.add(fl);
+        }
+
+        /**
+         * @param date attributes of a date element
+         * @return String object with the date in MM/DD/YYYY format
+         * */
+        private String createDate(Attributes date){
+            return date.getValue("month") + "/" + date.getValue("day") + "/" + date.getValue("year");
+        }
+
+        /**
+         * @param time attributes of a time element
+         * @return String object with the time in 24hr HH:MM format
+         * */
+        private String createTime(Attributes time){
+            int minute = Integer.parseInt(time.getValue("minute"));
+            StringBuilder sb = new StringBuilder(time.getValue("hour")).append(':');
+            if(minute<10) sb.append('0');
+            sb.append(minute);
+            return sb.toString();
+        }
+    }
+}
@@ -33,11 +33,19 @@ public class TextDumper implements AirlineDumper<Airline> {
       * FlightNumber DepartureAirportCode DepartureDate DepartureTime ArrivalAirportCode ArrivalDate Arrival Time
       * */
       for(Flight f: airline.getFlights()){
-        pw.println(f.getNumber() + " "+f.getSource()+" " +f.getDepDate() +
-                " " +f.getDepTime24()+" "+ f.getDestination() + " " +f.getArrDate() +
-                " " +f.getArrTime24());
+        pw.println(flightLine(f));
       }
       pw.flush();
     }
   }
+
+  /**
+   * @param f flight to be written
+   * @return the line of the flight in a txt file, without a line break
+   * */
+  static String flightLine(Flight f){
+    return f.getNumber() + " "+f.getSource()+" " +f.getDepDate() +
+            " " +f.getDepTime24()+" "+ f.getDestination() + " " +f.getArrDate() +
+            " " +f.getArrTime24();
+  }
 }
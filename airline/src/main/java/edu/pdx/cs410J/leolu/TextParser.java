@@ -10,6 +10,8 @@ import edu.pdx.cs410J.AirlineParser;
 import edu.pdx.cs410J.ParserException;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *  <code>TextParser</code> class
@@ -35,56 +37,43 @@ public class TextParser implements AirlineParser<Airline> {
 
   /**
    * Uses Try With Resource and Catch Block
-   * BufferedReader is the resource for reading the file line by line
+   * A FlightTokenizer reads the file line by line straight from the Reader
    * An airline is initialized with a String from file
    * Should the file contain more lines of possible valid flights,
    * each candidate flight information is validated before adding to airline
+   * Well formed flights are built in place from the tokenized line,
+   * any other line is split into Strings and checked field by field
    * Error messages are printed should any information be missing from flight
    * @throws ParserException should any errors occur during parsing
    * */
   public Airline parse() throws ParserException{
-    try (//Try with resource: BufferedReader br
-         BufferedReader br = new BufferedReader(this.reader)
+    try (//Try with resource: the Reader is closed once the file is parsed
+         Reader r = this.reader
     ) {
-
-      String airlineName = br.readLine();
-      if (airlineName == null) {
+      FlightTokenizer tokens = new FlightTokenizer(r);
+      if (!tokens.nextLine()) {
         throw new ParserException("Missing airline name");
       }
-      this.airline = new Airline(airlineName);
+      this.airline = new Airline(tokens.line());
+      List<Flight> flights = new ArrayList<>();
       int lineNumber=1;
-      String line;
-      while((line = br.readLine()) != null){
+      while(tokens.nextLine()){
 
-        String[] s = line.split("\\s+");
-        if(s.length==0) continue; //ignore empty lines;
-        if(s.length>7){
-          err.append("Extraneous inputs found in line " + lineNumber + ": \n");
-          for(int i=7; i<s.length; i++){
-            err.append(s[i]+" ");
-          }
-          throw new IllegalArgumentException(err.toString());
-        }else if(s.length<7){
-          err.append("The following arguments are missing: \n");
-          if(s.length<1) err.append("Flight Number\n");
-          if(s.length<2) err.append("Departure Airport Code\n");
-          if(s.length<3) err.append("Departure Date\n");
-          if(s.length<4) err.append("Departure Time\n");
-          if(s.length<5) err.append("Arrival Airport Code\n");
-          if(s.length<6) err.append("Arrival Date\n");
-          if(s.length<7) err.append("Arrival Time\n");
-          throw new IllegalArgumentException(err.toString());
+        if(tokens.fieldCount()==0) continue; //ignore empty lines;
+        Flight fl = tokens.toFlight(false);
+        if(fl == null){
+          String[] s = tokens.fields();
+          if(appendFieldCountError(err, s, lineNumber)) throw new IllegalArgumentException(err.toString());
+          fl = new Flight(s[0],s[1],s[2],s[3],s[4],s[5],s[6],true);
         }
-        Flight fl = new Flight(s[0],s[1],s[2],s[3],s[4],s[5],s[6],true);
-        this.airline.addFlight(fl);
         if(fl.getError().length()!=0){
-          System.out.println("Flight information in line " + lineNumber +
-                  " of txt file is not formatted correctly, please review information above.");
-          System.err.println("Provided txt file is malformed.");
+          printMalformedFlight(lineNumber);
           return null;
         }
+        flights.add(fl);
         ++lineNumber;
       }
+      this.airline.addFlights(flights);//sorts once instead of once per flight
 
       return this.airline;
 
@@ -100,6 +89,45 @@ public class TextParser implements AirlineParser<Airline> {
   }
 
 
+  /**
+   * Checks that a line has exactly the seven fields of a flight
+   * @param err error message the missing or extraneous fields are appended to
+   * @param s fields of the line
+   * @param lineNumber number of the flight in the file
+   * @return true when fields are missing or extraneous
+   * */
+  static boolean appendFieldCountError(StringBuilder err, String[] s, int lineNumber){
+    if(s.length>7){
+      err.append("Extraneous inputs found in line " + lineNumber + ": \n");
+      for(int i=7; i<s.length; i++){
+        err.append(s[i]+" ");
+      }
+      return true;
+    }else if(s.length<7){
+      err.append("The following arguments are missing: \n");
+      if(s.length<1) err.append("Flight Number\n");
+      if(s.length<2) err.append("Departure Airport Code\n");
+      if(s.length<3) err.append("Departure Date\n");
+      if(s.length<4) err.append("Departure Time\n");
+      if(s.length<5) err.append("Arrival Airport Code\n");
+      if(s.length<6) err.append("Arrival Date\n");
+      if(s.length<7) err.append("Arrival Time\n");
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Prints where the flight that did not pass its checks is located,
+   * the flight has already printed what is wrong with it
+   * @param lineNumber number of the flight in the file
+   * */
+  static void printMalformedFlight(int lineNumber){
+    System.out.println("Flight information in line " + lineNumber +
+            " of txt file is not formatted correctly, please review information above.");
+    System.err.println("Provided txt file is malformed.");
+  }
+
   public String getError(){
     return err.toString();
   }
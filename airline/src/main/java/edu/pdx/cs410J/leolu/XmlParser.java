@@ -19,6 +19,8 @@ import org.xml.sax.SAXException;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 
 /**
@@ -69,6 +71,7 @@ public class XmlParser implements AirlineParser<Airline> {
         this.airline = new Airline(airlineName);
 
         NodeList innerFlights = root.getElementsByTagName("flight");
+        List<Flight> flights = new ArrayList<>(innerFlights.getLength());
         for(int i=0; i<innerFlights.getLength(); i++){
             Flight fl = buildFlight(innerFlights.item(i));
             if(fl.getError().length()!=0){
@@ -78,8 +81,9 @@ public class XmlParser implements AirlineParser<Airline> {
                 System.out.println(err);
                 return null;
             }
-            this.airline.addFlight(fl);
+            flights.add(fl);
         }
+        this.airline.addFlights(flights);//sorts once instead of once per flight
 
         return airline;
     }
@@ -9,8 +9,10 @@ package edu.pdx.cs410J.leolu;
 
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
+import java.util.Iterator;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class AirlineTest {
 
@@ -48,4 +50,25 @@ public class AirlineTest {
         assertThat(nullFlight.getError(),equalTo("Null flight found in flights list"));
     }
 
+    @Test
+    void flightsStaySortedAndKeepDuplicates(){
+        Airline airline = new Airline("Sorted");
+        airline.addFlight(new Flight("3","SEA","01/23/2023", "9:00","JFK","01/23/2023", "17:00", true));
+        airline.addFlight(new Flight("2","PDX","01/24/2023", "8:00","SEA","01/24/2023", "9:00", true));
+        airline.addFlight(new Flight("1","PDX","01/23/2023", "8:00","JFK","01/23/2023", "16:00", true));
+        airline.addFlight(new Flight("4","PDX","01/23/2023", "8:00","JFK","01/23/2023", "16:00", true));
+        Iterator<Flight> flights = airline.getFlights().iterator();
+        assertThat(flights.next().getNumber(),equalTo(1));
+        assertThat(flights.next().getNumber(),equalTo(4));
+        assertThat(flights.next().getNumber(),equalTo(2));
+        assertThat(flights.next().getNumber(),equalTo(3));
+    }
+
+    @Test
+    void flightsCannotBeModifiedThroughGetFlights(){
+        Airline airline = new Airline("Read Only");
+        Flight flight = new Flight("1","PDX","01/23/2023", "8:00","JFK","01/23/2023", "16:00", true);
+        assertThrows(UnsupportedOperationException.class, () -> airline.getFlights().add(flight));
+    }
+
 }
@@ -0,0 +1,31 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class AirportCodesTest {
+
+    @Test
+    void idsAreDenseAndFollowTheOrderOfTheCodes(){
+        assertThat(AirportCodes.idOf("AAA"), equalTo(0));
+        assertThat(AirportCodes.idOf("ZZZ"), equalTo(AirportCodes.COUNT - 1));
+        assertThat(AirportCodes.idOf("SEA"), lessThan(AirportCodes.idOf("TPE")));
+    }
+
+    @Test
+    void codesAreCaseInsensitive(){
+        assertThat(AirportCodes.idOf("pdx"), equalTo(AirportCodes.idOf("PDX")));
+        assertThat(AirportCodes.codeOf(AirportCodes.idOf("pDx")), equalTo("PDX"));
+    }
+
+    @Test
+    void onlyRealThreeLetterCodesAreReal(){
+        assertThat(AirportCodes.isReal("PDX"), equalTo(true));
+        assertThat(AirportCodes.idOf("P1X"), equalTo(AirportCodes.NONE));
+        assertThat(AirportCodes.idOf("PDXX"), equalTo(AirportCodes.NONE));
+        assertThat(AirportCodes.isReal(AirportCodes.NONE), equalTo(false));
+        assertThat(AirportCodes.codeOf(AirportCodes.NONE), nullValue());
+    }
+}
@@ -0,0 +1,77 @@
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryParserTest {
+    final String VALID = "src/test/resources/edu/pdx/cs410J/leolu/valid-airline.txt";
+
+    @TempDir
+    Path dir;
+
+    private Path dump(Airline airline) {
+        Path file = dir.resolve("airline.bin");
+        new BinaryDumper(file.toString()).dump(airline);
+        return file;
+    }
+
+    @Test
+    void dumpedAirlineCanBeParsedBack() throws ParserException, IOException {
+        Airline airline = new TextParser(new FileReader(VALID)).parse();
+        Airline parsed = new BinaryParser(dump(airline).toString()).parse();
+        assertThat(parsed.getName(), equalTo(airline.getName()));
+        assertThat(parsed.getFlights().toString(), equalTo(airline.getFlights().toString()));
+    }
+
+    @Test
+    void flightsAreDecodedWithTheirDuration() throws ParserException {
+        Airline airline = new Airline("Test Airline");
+        airline.addFlight(new Flight("25","SEA","1/26/2023","00:10","TPE","1/26/2023","13:40",true));
+        Flight parsed = new BinaryParser(dump(airline).toString()).parse().getFlights().iterator().next();
+        assertThat(parsed.getNumber(), equalTo(25));
+        assertThat(parsed.getDepTime24(), equalTo("0:10"));
+        assertThat(parsed.getFlightDuration(), equalTo(810));
+    }
+
+    @Test
+    void flightsCanBeAddedToParsedAirline() throws ParserException {
+        Airline airline = new Airline("Test Airline");
+        airline.addFlight(new Flight("25","SEA","1/26/2023","00:10","TPE","1/26/2023","13:40",true));
+        airline.addFlight(new Flight("26","TPE","1/26/2023","00:10","SEA","1/26/2023","13:40",true));
+        Airline parsed = new BinaryParser(dump(airline).toString()).parse();
+        parsed.addFlight(new Flight("27","PDX","1/26/2023","00:10","SEA","1/26/2023","13:40",true));
+        List<String> sources = new ArrayList<>();
+        for(Flight fl: parsed.getFlights()) sources.add(fl.getSource());
+        assertThat(sources, contains("PDX", "SEA", "TPE"));
+    }
+
+    @Test
+    void textFileIsNotABinaryAirline() {
+        BinaryParser parser = new BinaryParser(VALID);
+        assertThrows(ParserException.class, parser::parse);
+        assertThat(parser.getErrorMsg(), containsString("not a binary airline file"));
+    }
+
+    @Test
+    void truncatedFileCantBeParsed() throws IOException {
+        Airline airline = new Airline("Test Airline");
+        airline.addFlight(new Flight("25","SEA","1/26/2023","00:10","TPE","1/26/2023","13:40",true));
+        Path file = dump(airline);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(ParserException.class, new BinaryParser(file.toString())::parse);
+    }
+}
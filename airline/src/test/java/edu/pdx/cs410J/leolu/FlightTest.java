@@ -284,4 +284,15 @@ public class FlightTest {
     assertThat(aDay,equalTo(8));
     assertThat(aYear,equalTo(2023));
   }
+
+  @Test
+  void outOfRangeDateRollsOverAndFormatsLikeBefore() {
+    Flight rollover = new Flight("26","SEA","2/30/2023","12:05 am","PDX","03/02/2023", "1:10 PM");
+    assertThat(rollover.getError(),equalTo(""));
+    assertThat(rollover.getDepDate(),equalTo("03/02/2023"));
+    assertThat(rollover.getDepTime(),equalTo("12:05 AM"));
+    assertThat(rollover.getDepTime24(),equalTo("0:05"));
+    assertThat(rollover.getArrTime24(),equalTo("13:10"));
+    assertThat(rollover.getFlightDuration(),equalTo(785));
+  }
 }
@@ -0,0 +1,64 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FlightTokenizerTest {
+
+  private static int count(String line){
+    return new FlightTokenizer().tokenize(line.toCharArray(), 0, line.length());
+  }
+
+  @Test
+  void fieldsAreCountedLikeSplitFields(){
+    String[] lines = {"", "   ", " 25 SEA", "25\tSEA  1/26/2023 ", "25 SEA 1/26/2023 00:10 TPE 3/2/2023 05:30 extra"};
+    for(String line: lines){
+      assertThat(line, count(line), equalTo(FlightValidator.splitFields(line).length));
+    }
+  }
+
+  @Test
+  void wellFormedFlightIsBuiltInPlace(){
+    String line = "25 sea 1/26/2023 00:10 TPE 3/2/2023 05:30";
+    FlightTokenizer tokens = new FlightTokenizer();
+    tokens.tokenize(line.toCharArray(), 0, line.length());
+    Flight fl = tokens.toFlight(true);
+    Flight expected = new Flight("25","sea","1/26/2023","00:10","TPE","3/2/2023","05:30",true);
+    assertThat(fl, notNullValue());
+    assertThat(fl.toString(), equalTo(expected.toString()));
+    assertThat(fl.getFlightDuration(), equalTo(expected.getFlightDuration()));
+  }
+
+  @Test
+  void outOfRangeDateRollsOverLikeTheLenientParser(){
+    String line = "25 SEA 2/30/2023 10:00 TPE 3/3/2023 05:30";
+    FlightTokenizer tokens = new FlightTokenizer();
+    tokens.tokenize(line.toCharArray(), 0, line.length());
+    assertThat(tokens.toFlight(true).getDepDate(), equalTo("03/02/2023"));
+  }
+
+  @Test
+  void malformedFieldsAreLeftToTheStringConstructor(){
+    String[] lines = {"0 SEA 1/26/2023 00:10 TPE 3/2/2023 05:30", "25 XYZ 1/26/2023 00:10 TPE 3/2/2023 05:30",
+            "25 SEA 13/26/2023 00:10 TPE 3/2/2023 05:30", "25 SEA 1/26/2023 24:00 TPE 3/2/2023 05:30",
+            "25 SEA 1/26/202 00:10 TPE 3/2/2023 05:30"};
+    FlightTokenizer tokens = new FlightTokenizer();
+    for(String line: lines){
+      tokens.tokenize(line.toCharArray(), 0, line.length());
+      assertThat(line, tokens.toFlight(true), nullValue());
+    }
+  }
+
+  @Test
+  void linesEndLikeReadLine() throws IOException {
+    FlightTokenizer tokens = new FlightTokenizer(new StringReader("a\r\nb\rc\n\nd"));
+    StringBuilder lines = new StringBuilder();
+    while(tokens.nextLine()) lines.append(tokens.line()).append('|');
+    assertThat(lines.toString(), equalTo("a|b|c||d|"));
+  }
+}
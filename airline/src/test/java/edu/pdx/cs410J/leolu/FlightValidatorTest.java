@@ -0,0 +1,32 @@
+package edu.pdx.cs410J.leolu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FlightValidatorTest {
+
+    @Test
+    void datesWithOrWithoutLeadingZerosAreValid(){
+        assertThat(FlightValidator.isValidDate("01/02/2023"), equalTo(true));
+        assertThat(FlightValidator.isValidDate("1/2/23"), equalTo(true));
+        assertThat(FlightValidator.isValidDate("13/2/2023"), equalTo(false));
+        assertThat(FlightValidator.isValidDate("1/32/2023"), equalTo(false));
+    }
+
+    @Test
+    void timesAreCheckedForTheirClock(){
+        assertThat(FlightValidator.isValidTime24("0:05"), equalTo(true));
+        assertThat(FlightValidator.isValidTime24("24:00"), equalTo(false));
+        assertThat(FlightValidator.isValidTime12("12:05 am"), equalTo(true));
+        assertThat(FlightValidator.isValidTime12("12:05PM"), equalTo(true));
+        assertThat(FlightValidator.isValidTime12("13:05 pm"), equalTo(false));
+    }
+
+    @Test
+    void linesAreSplitOnAnyWhitespace(){
+        assertThat(FlightValidator.splitFields("26 SEA\t1/23/2023  10:40"),
+                arrayContaining("26", "SEA", "1/23/2023", "10:40"));
+    }
+}
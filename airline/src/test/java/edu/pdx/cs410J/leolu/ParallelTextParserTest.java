@@ -0,0 +1,88 @@
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParallelTextParserTest {
+  static final String RESOURCES = "src/test/resources/edu/pdx/cs410J/leolu/";
+  static final String FLIGHT = "25 SEA 1/26/2023 00:10 TPE 3/2/2023 05:30\n";
+
+  @TempDir
+  Path dir;
+
+  private String write(String content) throws IOException {
+    Path file = dir.resolve("airline.txt");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file.toString();
+  }
+
+  private ParallelTextParser smallChunks(String filepath) {
+    return new ParallelTextParser(filepath, 64, new ForkJoinPool(4));
+  }
+
+  @Test
+  void parallelParserMatchesSequentialParser() throws ParserException, IOException {
+    Airline sequential = new TextParser(new FileReader(RESOURCES + "valid-airline.txt")).parse();
+    Airline parallel = smallChunks(RESOURCES + "valid-airline.txt").parse();
+    assertThat(parallel.getName(), equalTo(sequential.getName()));
+    assertThat(parallel.getFlights().toString(), equalTo(sequential.getFlights().toString()));
+  }
+
+  @Test
+  void everyChunkIsParsed() throws ParserException, IOException {
+    String filepath = write("Test Airline\r\n" + FLIGHT.repeat(100) + "  \n" + FLIGHT.repeat(100));
+    Airline airline = smallChunks(filepath).parse();
+    assertThat(airline.getFlights().size(), equalTo(200));
+  }
+
+  @Test
+  void emptyFileThrowsParserException() throws IOException {
+    String filepath = write("");
+    assertThrows(ParserException.class, smallChunks(filepath)::parse);
+  }
+
+  @Test
+  void malformedFlightInLaterChunkReportsSequentialLineNumber() throws ParserException, IOException {
+    String filepath = write("Test Airline\n" + FLIGHT.repeat(150)
+            + "25 SEA 1/26/2023 00:10 TPE 3/2/2023 05:30 extra\n" + FLIGHT.repeat(40));
+    TextParser sequential = new TextParser(new FileReader(filepath));
+    sequential.parse();
+    ParallelTextParser parser = smallChunks(filepath);
+    assertThat(parser.parse(), nullValue());
+    assertThat(parser.getError(), containsString("line 151"));
+    assertThat(parser.getError(), equalTo(sequential.getError()));
+  }
+
+  @Test
+  void missingInfoInLaterChunkIsReported() throws ParserException, IOException {
+    String filepath = write("Test Airline\n" + FLIGHT.repeat(150) + "25 SEA 1/26/2023 00:10\n");
+    ParallelTextParser parser = smallChunks(filepath);
+    assertThat(parser.parse(), nullValue());
+    assertThat(parser.getError(), containsString("Arrival Airport Code"));
+  }
+
+  @Test
+  void invalidFlightInLaterChunkPrintsLineNumber() throws ParserException, IOException {
+    String filepath = write("Test Airline\n" + FLIGHT.repeat(150) + "25 SEA 1/26/2023 00:10 TPE 1/2/2023 05:30\n");
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    PrintStream out = System.out;
+    System.setOut(new PrintStream(baos));
+    try {
+      assertThat(smallChunks(filepath).parse(), nullValue());
+    } finally {
+      System.setOut(out);
+    }
+    assertThat(baos.toString(), containsString("line 151 of txt file"));
+  }
+}
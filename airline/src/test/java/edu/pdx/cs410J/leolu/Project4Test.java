@@ -8,10 +8,12 @@
  * */
 package edu.pdx.cs410J.leolu;
 
+import edu.pdx.cs410J.ParserException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
+import java.nio.file.Files;
 
 
 import static org.hamcrest.CoreMatchers.*;
@@ -320,4 +322,70 @@ class Project4Test {
     assertThat(output,containsString("does not match"));
     System.setErr(System.err);
   }
+
+  @Test
+  void appendAddsFlightLineWithoutRewritingFile(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "append.txt");
+    try (FileWriter fw = new FileWriter(file)) {
+      fw.write("EVA Air\n7 TPE 01/01/2023 5:00 SEA 01/01/2023 9:00");
+    }
+    String[] args = new String[]{"-textFile", file.getPath(), "-append", "eva air", "25", "SEA",
+            "01/26/2023", "12:10", "am", "TPE", "01/27/2023", "5:30", "pm"};
+    Project4.subMainForTesting(args);
+
+    String contents = Files.readString(file.toPath());
+    assertThat(contents, equalTo("EVA Air\n7 TPE 01/01/2023 5:00 SEA 01/01/2023 9:00" + System.lineSeparator() +
+            "25 SEA 01/26/2023 0:10 TPE 01/27/2023 17:30" + System.lineSeparator()));
+  }
+
+  @Test
+  void appendToFileOfAnotherAirlinePrintsErr(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "append.txt");
+    try (FileWriter fw = new FileWriter(file)) {
+      fw.write("Other Air\n");
+    }
+    String[] args = new String[]{"-textFile", file.getPath(), "-append", "EVA Air", "25", "SEA",
+            "01/26/2023", "12:10", "am", "TPE", "01/27/2023", "5:30", "pm"};
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    PrintStream err = System.err;
+    System.setErr(new PrintStream(baos));
+    Project4.subMainForTesting(args);
+    System.setErr(err);
+
+    assertThat(baos.toString(), containsString("does not match"));
+    assertThat(Files.readString(file.toPath()), equalTo("Other Air\n"));
+  }
+
+  @Test
+  void appendToXmlFileOfAnotherAirlinePrintsErr(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "append.xml");
+    Airline other = new Airline("Other Air");
+    other.addFlight(new Flight("7","TPE","01/01/2023","5:00","SEA","01/01/2023","9:00",true));
+    new StreamingXmlDumper(file.getPath()).dump(other);
+    String before = Files.readString(file.toPath());
+    String[] args = new String[]{"-xmlFile", file.getPath(), "-append", "EVA Air", "25", "SEA",
+            "01/26/2023", "12:10", "am", "TPE", "01/27/2023", "5:30", "pm"};
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    PrintStream err = System.err;
+    System.setErr(new PrintStream(baos));
+    Project4.subMainForTesting(args);
+    System.setErr(err);
+
+    assertThat(baos.toString(), containsString("does not match"));
+    assertThat(Files.readString(file.toPath()), equalTo(before));
+  }
+
+  @Test
+  void appendAddsFlightElementToXmlFile(@TempDir File tempDir) throws IOException, ParserException {
+    File file = new File(tempDir, "append.xml");
+    Airline airline = new Airline("EVA Air");
+    airline.addFlight(new Flight("7","TPE","01/01/2023","5:00","SEA","01/01/2023","9:00",true));
+    new StreamingXmlDumper(file.getPath()).dump(airline);
+    String[] args = new String[]{"-xmlFile", file.getPath(), "-append", "eva air", "25", "SEA",
+            "01/26/2023", "12:10", "am", "TPE", "01/27/2023", "5:30", "pm"};
+    Project4.subMainForTesting(args);
+
+    Airline parsed = new XmlParser(file.getPath()).parse();
+    assertThat(parsed.getFlights().size(), equalTo(2));
+  }
 }
@@ -0,0 +1,98 @@
+package edu.pdx.cs410J.leolu;
+
+
+import edu.pdx.cs410J.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingXmlDumperTest {
+
+    private Airline testAirline(){
+        Airline airline = new Airline("Test Airline");
+        airline.addFlight(new Flight("26","SEA","01/23/2023","12:40 pm","SFO","01/23/2023", "3:40 pm"));
+        airline.addFlight(new Flight("27","SEA","01/23/2023","22:40","PDX","01/23/2023", "23:40", true));
+        return airline;
+    }
+
+    @Test
+    void streamedXMLFileMatchesDomXMLFile() throws IOException {
+        String dom = "src/test/resources/edu/pdx/cs410J/leolu/dom-airline.xml";
+        String streamed = "src/test/resources/edu/pdx/cs410J/leolu/streamed-airline.xml";
+        XmlDumper domDumper = new XmlDumper(dom);
+        domDumper.dump(testAirline());
+        StreamingXmlDumper dumper = new StreamingXmlDumper(streamed);
+        dumper.dump(testAirline());
+        assertThat(Files.readString(Path.of(streamed)), equalTo(Files.readString(Path.of(dom))));
+        domDumper.deleteXmlFile();
+        dumper.deleteXmlFile();
+    }
+
+    @Test
+    void streamedXMLFileCanBeParsed() throws ParserException {
+        String streamed = "src/test/resources/edu/pdx/cs410J/leolu/streamed-airline.xml";
+        StreamingXmlDumper dumper = new StreamingXmlDumper(streamed);
+        dumper.dump(testAirline());
+        Airline airline = new StreamingXmlParser(streamed).parse();
+        assertThat(airline.getName(), equalTo("Test Airline"));
+        assertThat(airline.getFlights().size(), equalTo(2));
+        dumper.deleteXmlFile();
+    }
+
+    @Test
+    void appendedFlightIsParsedByValidatingParser(@TempDir Path dir) throws ParserException, IOException {
+        String path = dir.resolve("airline.xml").toString();
+        new StreamingXmlDumper(path).dump(testAirline());
+        Airline added = new Airline("Test Airline");
+        added.addFlight(new Flight("28","PDX","01/24/2023","08:00","SEA","01/24/2023","09:00",true));
+        assertThat(new StreamingXmlDumper(path).append(added), equalTo(true));
+
+        Airline airline = new XmlParser(path).parse();
+        assertThat(airline.getFlights().size(), equalTo(3));
+        Airline expected = testAirline();
+        expected.addFlight(added.getFlights().iterator().next());
+        assertThat(airline.getFlights().toString(), equalTo(expected.getFlights().toString()));
+    }
+
+    @Test
+    void appendedFileMatchesDumpedFile(@TempDir Path dir) throws IOException {
+        Path appended = dir.resolve("appended.xml");
+        Path dumped = dir.resolve("dumped.xml");
+        Airline first = new Airline("Test Airline");
+        first.addFlight(new Flight("26","SEA","01/23/2023","12:40 pm","SFO","01/23/2023", "3:40 pm"));
+        new StreamingXmlDumper(appended.toString()).dump(first);
+        Airline second = new Airline("Test Airline");
+        second.addFlight(new Flight("27","SEA","01/23/2023","22:40","PDX","01/23/2023", "23:40", true));
+        new StreamingXmlDumper(appended.toString()).append(second);
+        new StreamingXmlDumper(dumped.toString()).dump(testAirline());
+        assertThat(Files.readString(appended), equalTo(Files.readString(dumped)));
+    }
+
+    @Test
+    void fileWithoutClosingTagIsNotAppended(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("airline.xml");
+        Files.writeString(file, "<airline><name>Test Airline</name>");
+        assertThat(new StreamingXmlDumper(file.toString()).append(testAirline()), equalTo(false));
+        assertThat(Files.readString(file), equalTo("<airline><name>Test Airline</name>"));
+    }
+
+    @Test
+    void nullAirlineInDumpPrintsErrorToSystemErr(){
+        StreamingXmlDumper dumper = new StreamingXmlDumper("src/test/resources/edu/pdx/cs410J/leolu/first-airline.xml");
+        dumper.dump(null);
+        assertThat(dumper.getErrorMsg(),containsString("does not accept null for airline object!"));
+    }
+
+    @Test
+    void badFilePathDumpThrowsRuntimeException(){
+        StreamingXmlDumper dumper = new StreamingXmlDumper("ources/edu/pdx/cs410J/leolu/first-airline.xml");
+        assertThrows(RuntimeException.class,()->dumper.dump(testAirline()));
+    }
+}
@@ -0,0 +1,47 @@
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingXmlParserTest {
+
+    final String VALID = "src/test/resources/edu/pdx/cs410J/leolu/valid-airline.xml";
+    final String INVALID = "src/test/resources/edu/pdx/cs410J/leolu/invalid-airline.xml";
+    final String INVALID_FLIGHT_INFO = "src/test/resources/edu/pdx/cs410J/leolu/invalid-flight-info.xml";
+
+    @Test
+    void validAirlineXMLCanBeParsed() throws ParserException {
+        StreamingXmlParser parser = new StreamingXmlParser(VALID);
+        Airline airline = parser.parse();
+        assertThat(airline.getName(), equalTo("Valid Airlines"));
+        assertThat(airline.getFlights().size(), equalTo(2));
+    }
+
+    @Test
+    void streamingParserMatchesDomParser() throws ParserException, IOException {
+        Airline dom = new XmlParser(VALID).parse();
+        Airline streamed = new StreamingXmlParser(new FileReader(VALID)).parse();
+        assertThat(streamed.getName(), equalTo(dom.getName()));
+        assertThat(streamed.getFlights().toString(), equalTo(dom.getFlights().toString()));
+    }
+
+    @Test
+    void invalidAirlineXMLCantBeParsed(){
+        StreamingXmlParser parser = new StreamingXmlParser(INVALID);
+        assertThrows(ParserException.class, parser::parse);
+    }
+
+    @Test
+    void invalidFlightTimeXMLPrintsError() throws ParserException {
+        StreamingXmlParser parser = new StreamingXmlParser(INVALID_FLIGHT_INFO);
+        assertThat(parser.parse(), nullValue());
+        assertThat(parser.getErrorMsg(), containsString("XML file does not conform to the DTD"));
+    }
+}
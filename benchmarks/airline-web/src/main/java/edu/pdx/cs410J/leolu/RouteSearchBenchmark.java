@@ -0,0 +1,134 @@
+/**
+ * The {code RouteSearchBenchmark} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of searching the flights of an airline by source and destination,
+ * through the route index of <code>Airline</code> and through a GET request to
+ * <code>AirlineServlet</code>, which also writes the matching flights as XML.
+ * Requests and responses are plain proxies rather than mocks, so recording
+ * invocations does not add to the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteSearchBenchmark {
+    static final String NAME = "Benchmark Airlines";
+    static final String[] CODES = {"PDX", "SEA", "SFO", "LAX", "JFK", "ORD", "ABQ", "TPE"};
+
+    private static final long SEED = 410;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final DateTimeFormatter TIME_12 = DateTimeFormatter.ofPattern("h:mm a", Locale.US);
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @Param({"1000", "100000", "1000000"})
+    int flights;
+
+    private Airline airline;
+    private AirlineServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void generateAirline() {
+        Random random = new Random(SEED);
+        List<Flight> generated = new ArrayList<>(flights);
+        for (int i = 0; i < flights; i++) {
+            LocalDateTime depart = START.plusMinutes(random.nextInt(365 * 24 * 60));
+            LocalDateTime arrive = depart.plusMinutes(30 + random.nextInt(12 * 60));
+            generated.add(new Flight(Integer.toString(1 + random.nextInt(9999)),
+                    CODES[random.nextInt(CODES.length)], DATE.format(depart), TIME_12.format(depart),
+                    CODES[random.nextInt(CODES.length)], DATE.format(arrive), TIME_12.format(arrive)));
+        }
+        airline = new Airline(NAME);
+        airline.addFlights(generated);
+
+        servlet = new AirlineServlet();
+        servlet.addAirlineToMap(airline);
+        request = request(Map.of(AirlineServlet.AIRLINE_NAME_PARAM, NAME,
+                AirlineServlet.SOURCE_PARAM, "PDX", AirlineServlet.DESTINATION_PARAM, "SEA"));
+        response = response(new PrintWriter(Writer.nullWriter()));
+    }
+
+    @Benchmark
+    public List<Flight> airlineRouteSearch() {
+        return airline.getFlights("PDX", "SEA");
+    }
+
+    @Benchmark
+    public int servletRouteSearch() throws IOException {
+        servlet.doGet(request, response);
+        return response.getStatus();
+    }
+
+    /**
+     * @param params parameters of the query string
+     * @return a GET request with the given parameters
+     * */
+    private static HttpServletRequest request(Map<String, String> params) {
+        StringJoiner query = new StringJoiner("&");
+        Map<String, String[]> parameterMap = new HashMap<>();
+        params.forEach((name, value) -> {
+            query.add(name + "=" + value);
+            parameterMap.put(name, new String[]{value});
+        });
+        String queryString = query.toString();
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getQueryString": return queryString;
+                        case "getParameter": return params.get((String) args[0]);
+                        case "getParameterMap": return parameterMap;
+                        case "getMethod": return "GET";
+                        default: return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * @param writer writer the body of every response is written to
+     * @return a response that keeps its last status
+     * */
+    private static HttpServletResponse response(PrintWriter writer) {
+        int[] status = {HttpServletResponse.SC_OK};
+        return (HttpServletResponse) Proxy.newProxyInstance(HttpServletResponse.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWriter": return writer;
+                        case "setStatus":
+                        case "sendError":
+                            status[0] = (Integer) args[0];
+                            return null;
+                        case "getStatus": return status[0];
+                        default: return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
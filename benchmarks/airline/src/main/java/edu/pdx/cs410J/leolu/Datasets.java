@@ -0,0 +1,98 @@
+/**
+ * The {code Datasets} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated airlines the benchmarks run against.
+ * The same size always generates the same flights, so results of different
+ * runs and releases are measured on the same data.
+ */
+final class Datasets {
+    static final String NAME = "Benchmark Airlines";
+    static final String[] CODES = {"PDX", "SEA", "SFO", "LAX", "JFK", "ORD", "ABQ", "TPE"};
+
+    private static final long SEED = 410;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final DateTimeFormatter TIME_24 = DateTimeFormatter.ofPattern("H:mm");
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private Datasets() {
+    }
+
+    /**
+     * @param count number of flights
+     * @return the fields of each flight in txt file order, with 24 hr times
+     * */
+    static String[][] flightFields(int count) {
+        Random random = new Random(SEED);
+        String[][] flights = new String[count][];
+        for (int i = 0; i < count; i++) {
+            LocalDateTime depart = START.plusMinutes(random.nextInt(365 * 24 * 60));
+            LocalDateTime arrive = depart.plusMinutes(30 + random.nextInt(12 * 60));
+            flights[i] = new String[]{
+                    Integer.toString(1 + random.nextInt(9999)),
+                    CODES[random.nextInt(CODES.length)], DATE.format(depart), TIME_24.format(depart),
+                    CODES[random.nextInt(CODES.length)], DATE.format(arrive), TIME_24.format(arrive)};
+        }
+        return flights;
+    }
+
+    /**
+     * @param count number of flights
+     * @return airline with the generated flights
+     * */
+    static Airline airline(int count) {
+        List<Flight> flights = new ArrayList<>(count);
+        for (String[] s : flightFields(count)) {
+            flights.add(new Flight(s[0], s[1], s[2], s[3], s[4], s[5], s[6], true));
+        }
+        Airline airline = new Airline(NAME);
+        airline.addFlights(flights);
+        return airline;
+    }
+
+    /**
+     * @return a temporary txt file of the airline written by {@link TextDumper}
+     * */
+    static Path textFile(Airline airline) {
+        try {
+            Path file = Files.createTempFile("airline", ".txt");
+            file.toFile().deleteOnExit();
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                new TextDumper(writer).dump(airline);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return a temporary xml file of the airline written by {@link XmlDumper}
+     * */
+    static Path xmlFile(Airline airline) {
+        try {
+            Path file = Files.createTempFile("airline", ".xml");
+            file.toFile().deleteOnExit();
+            new XmlDumper(file.toString()).dump(airline);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * The {code DumperBenchmark} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of writing an <code>Airline</code> as txt, xml and pretty printed text.
+ * The txt and pretty dumpers write to a writer that discards its output,
+ * so only formatting the flights is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DumperBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int flights;
+
+    private Airline airline;
+    private Path xmlFile;
+
+    @Setup(Level.Trial)
+    public void generateAirline() throws IOException {
+        airline = Datasets.airline(flights);
+        xmlFile = Files.createTempFile("dump", ".xml");
+        xmlFile.toFile().deleteOnExit();
+    }
+
+    @Benchmark
+    public void textDumperDump() {
+        new TextDumper(Writer.nullWriter()).dump(airline);
+    }
+
+    @Benchmark
+    public void xmlDumperDump() {
+        new XmlDumper(xmlFile.toString()).dump(airline);
+    }
+
+    @Benchmark
+    public void prettyPrinterDump() {
+        new PrettyPrinter(Writer.nullWriter()).dump(airline);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * The {code FlightBenchmark} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a single <code>Flight</code> from its txt fields,
+ * and of reading the sorted flights of an <code>Airline</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FlightBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int flights;
+
+    private String[][] fields;
+    private Airline airline;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generateFlights() {
+        fields = Datasets.flightFields(flights);
+        airline = Datasets.airline(flights);
+    }
+
+    @Benchmark
+    public Flight flightConstruction() {
+        String[] s = fields[next];
+        next = next + 1 == fields.length ? 0 : next + 1;
+        return new Flight(s[0], s[1], s[2], s[3], s[4], s[5], s[6], true);
+    }
+
+    @Benchmark
+    public Collection<Flight> airlineGetFlights() {
+        return airline.getFlights();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void airlineGetFlightsIteration(Blackhole blackhole) {
+        for (Flight flight : airline.getFlights()) {
+            blackhole.consume(flight);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * The {code ParserBenchmark} class
+ * @author Leo Lu
+ * PSU CS510 Advanced Java Winter 2023
+ *
+ * */
+package edu.pdx.cs410J.leolu;
+
+import edu.pdx.cs410J.ParserException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of reading a txt or xml airline file back into an <code>Airline</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParserBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int flights;
+
+    private Path textFile;
+    private Path xmlFile;
+
+    @Setup(Level.Trial)
+    public void writeFiles() {
+        Airline airline = Datasets.airline(flights);
+        textFile = Datasets.textFile(airline);
+        xmlFile = Datasets.xmlFile(airline);
+    }
+
+    @Benchmark
+    public Airline textParserParse() throws ParserException, IOException {
+        return new TextParser(new FileReader(textFile.toFile())).parse();
+    }
+
+    @Benchmark
+    public Airline xmlParserParse() throws ParserException {
+        return new XmlParser(xmlFile.toString()).parse();
+    }
+}